@@ -0,0 +1,129 @@
+// Scenario: Adaptive concurrency limit in front of the pool — Banking System
+// When the database slows down, every extra waiter only adds latency: it will
+// sit out the full acquire timeout and then fail anyway. The controller learns
+// how much concurrency the database can take from connection hold times and
+// turns the excess away immediately.
+
+/**
+ * The limit caps borrowed connections plus threads still waiting in
+ * acquireConnection(). It adapts with a gradient on hold times:
+ *
+ *   recentHold   — fast EWMA of hold times (what the DB is doing now)
+ *   baselineHold — slow EWMA, pulled down to recentHold whenever that is lower
+ *                  (what the DB does when healthy)
+ *   gradient     — TOLERANCE × baselineHold / recentHold, clamped to [0.5, 1]
+ *   limit        ← limit × gradient + √limit, smoothed
+ *
+ * While hold times stay near the baseline the gradient is 1 and the √limit
+ * term grows the limit back towards its maximum. When they rise, the
+ * gradient shrinks it. An acquire timeout cuts the limit by a fixed factor —
+ * the multiplicative decrease of AIMD.
+ *
+ * Independently, at most maxQueuedAcquires threads may wait at once.
+ *
+ * The release path only offers a sample: if another thread is updating the
+ * estimate, the sample is dropped rather than waited for.
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class AdmissionController {
+
+    private static final double TOLERANCE        = 1.5;  // hold times may grow 50% before the limit shrinks
+    private static final double RECENT_WEIGHT    = 0.1;
+    private static final double BASELINE_WEIGHT  = 0.002; // ~500 samples — the healthy baseline moves slowly
+    private static final double SMOOTHING        = 0.2;
+    private static final double TIMEOUT_BACKOFF  = 0.9;
+
+    private final    int minLimit;
+    private volatile int maxLimit;
+    private final    int maxQueuedAcquires;
+
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile double limit;
+    // Guarded by updateLock
+    private double recentHold;
+    private double baselineHold;
+
+    AdmissionController(int maxSize, int maxQueuedAcquires) {
+        this.minLimit          = 1;
+        this.maxLimit          = maxSize + maxQueuedAcquires;
+        this.maxQueuedAcquires = maxQueuedAcquires;
+        this.limit             = maxLimit;
+    }
+
+    /**
+     * Admit one acquire, or throw right away. A caller that is admitted must
+     * call leave() once it has a connection or has given up.
+     */
+    void enter(int activeConnections) throws PoolOverloadedException {
+        int waiting = queued.incrementAndGet();
+        int currentLimit = getLimit();
+        if (waiting > maxQueuedAcquires || activeConnections + waiting > currentLimit) {
+            queued.decrementAndGet();
+            throw new PoolOverloadedException("Connection pool overloaded — " + activeConnections
+                    + " active, " + (waiting - 1) + " waiting, concurrency limit " + currentLimit,
+                    currentLimit, waiting - 1);
+        }
+    }
+
+    void leave() {
+        queued.decrementAndGet();
+    }
+
+    // Release path — one hold-time sample
+    void onRelease(long holdNanos) {
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (baselineHold == 0) {
+                recentHold = baselineHold = holdNanos;
+                return;
+            }
+            recentHold   += (holdNanos - recentHold) * RECENT_WEIGHT;
+            baselineHold += (holdNanos - baselineHold) * BASELINE_WEIGHT;
+            if (recentHold < baselineHold) {
+                baselineHold = recentHold;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineHold / recentHold));
+            double current  = limit;
+            double target   = current * gradient + Math.sqrt(current);
+            limit = clamp(current * (1 - SMOOTHING) + target * SMOOTHING);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    // An admitted caller waited out the whole acquire timeout
+    void onTimeout() {
+        updateLock.lock();
+        try {
+            limit = clamp(limit * TIMEOUT_BACKOFF);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    // The pool's maxSize changed at runtime
+    void resize(int maxSize) {
+        updateLock.lock();
+        try {
+            maxLimit = maxSize + maxQueuedAcquires;
+            limit = clamp(limit);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+}
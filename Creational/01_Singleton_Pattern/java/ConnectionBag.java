@@ -0,0 +1,287 @@
+// Scenario: Lock-free connection container behind ConnectionPoolManager
+// Replaces the single-lock ArrayBlockingQueue with a thread-affine bag:
+// most borrows are served without touching any shared lock at all.
+
+/**
+ * With one ArrayBlockingQueue, every acquire and every release contends on the
+ * same ReentrantLock. Past a few dozen transaction threads that lock becomes the
+ * hottest monitor in the service.
+ *
+ * ConnectionBag serves a borrow in three tiers:
+ *   1. The calling thread's own recently-released entries (no sharing at all)
+ *   2. A CAS scan over the shared entry list (CopyOnWriteArrayList — read is lock-free)
+ *   3. Park on a fair SynchronousQueue — only when the bag is actually empty
+ *
+ * An entry is claimed by flipping its state NOT_IN_USE → IN_USE with a CAS, so the
+ * same entry may sit in several thread-local lists; whoever wins the CAS owns it.
+ *
+ * Before parking, a borrower tells the Listener how many threads are waiting so the
+ * owning pool can grow asynchronously instead of creating a connection inline.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+public final class ConnectionBag<T> {
+
+    public static final int STATE_NOT_IN_USE = 0;
+    public static final int STATE_IN_USE     = 1;
+    public static final int STATE_REMOVED    = -1;
+    public static final int STATE_RESERVED   = -2;
+
+    // Upper bound on each thread's recently-used list — keeps a thread that
+    // touched many connections from pinning references to all of them
+    private static final int THREAD_LIST_LIMIT = 16;
+
+    private final CopyOnWriteArrayList<Entry<T>> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<Entry<T>>>   threadList = ThreadLocal.withInitial(() -> new ArrayList<>(THREAD_LIST_LIMIT));
+    private final SynchronousQueue<Entry<T>>     handoffQueue = new SynchronousQueue<>(true); // fair → FIFO waiters
+    private final AtomicInteger                  waiters = new AtomicInteger(0);
+    private final Listener                       listener;
+
+    /**
+     * Callback into the owning pool when a borrower is about to park.
+     */
+    public interface Listener {
+        void addBagItem(int waiting);
+    }
+
+    public ConnectionBag(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Borrow an entry, waiting up to the given timeout if none is free.
+     *
+     * @return the borrowed entry, or null if the timeout elapsed
+     */
+    public Entry<T> borrow(long timeout, TimeUnit unit) throws InterruptedException {
+        // Tier 1: this thread's recently released entries — newest first
+        List<Entry<T>> local = threadList.get();
+        for (int i = local.size() - 1; i >= 0; i--) {
+            Entry<T> entry = local.remove(i);
+            if (entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return entry;
+            }
+        }
+
+        // Tier 2: scan the shared list. Registering as a waiter first means a
+        // concurrent requite() will try to hand its entry to us directly.
+        int waiting = waiters.incrementAndGet();
+        try {
+            for (Entry<T> entry : sharedList) {
+                if (entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                    return entry;
+                }
+            }
+
+            // Tier 3: the bag is empty — ask the pool to grow, then park until
+            // someone hands an entry over
+            listener.addBagItem(waiting);
+
+            long remaining = unit.toNanos(timeout);
+            while (remaining > 0) {
+                long start = System.nanoTime();
+                Entry<T> entry = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                    return entry;
+                }
+                remaining -= System.nanoTime() - start;
+            }
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Return a borrowed entry. Hands it straight to a parked borrower when one
+     * exists; otherwise remembers it in the releasing thread's local list.
+     */
+    public void requite(Entry<T> entry) {
+        entry.setState(STATE_NOT_IN_USE);
+
+        for (int spins = 0; waiters.get() > 0; spins++) {
+            if (entry.getState() != STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+                return; // claimed by a scanner, or handed off to a parked waiter
+            }
+            if ((spins & 0xff) == 0xff) {
+                LockSupport.parkNanos(10_000);
+            } else {
+                Thread.yield();
+            }
+        }
+
+        List<Entry<T>> local = threadList.get();
+        if (local.size() < THREAD_LIST_LIMIT) {
+            local.add(entry);
+        }
+    }
+
+    /**
+     * Add a new value to the bag and offer it to any parked borrower.
+     */
+    public Entry<T> add(T value) {
+        return add(newEntry(value));
+    }
+
+    /**
+     * Create an entry without publishing it, for owners that need to link the
+     * value to its entry before any borrower can see it.
+     */
+    public Entry<T> newEntry(T value) {
+        return new Entry<>(value);
+    }
+
+    public Entry<T> add(Entry<T> entry) {
+        sharedList.add(entry);
+
+        // Give a waiting borrower the chance to take it straight away
+        while (waiters.get() > 0 && entry.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+            Thread.yield();
+        }
+        return entry;
+    }
+
+    /**
+     * Remove an entry that is either borrowed or reserved by the caller.
+     *
+     * @return true if the entry was removed
+     */
+    public boolean remove(Entry<T> entry) {
+        if (!entry.compareAndSet(STATE_IN_USE, STATE_REMOVED)
+                && !entry.compareAndSet(STATE_RESERVED, STATE_REMOVED)) {
+            return false;
+        }
+        return sharedList.remove(entry);
+    }
+
+    /**
+     * Take an idle entry out of circulation so housekeeping can inspect or
+     * retire it without a borrower grabbing it mid-way.
+     */
+    public boolean reserve(Entry<T> entry) {
+        return entry.compareAndSet(STATE_NOT_IN_USE, STATE_RESERVED);
+    }
+
+    public void unreserve(Entry<T> entry) {
+        if (entry.compareAndSet(STATE_RESERVED, STATE_NOT_IN_USE)) {
+            while (waiters.get() > 0 && entry.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    public int getWaitingThreadCount() {
+        return waiters.get();
+    }
+
+    // ── Snapshot helpers (lock-free reads of the shared list) ───────────────
+
+    public int size() {
+        return sharedList.size();
+    }
+
+    public List<Entry<T>> values(int state) {
+        List<Entry<T>> matching = new ArrayList<>();
+        for (Entry<T> entry : sharedList) {
+            if (entry.getState() == state) matching.add(entry);
+        }
+        return matching;
+    }
+
+    public int count(int state) {
+        int count = 0;
+        for (Entry<T> entry : sharedList) {
+            if (entry.getState() == state) count++;
+        }
+        return count;
+    }
+
+    // ── Entry ────────────────────────────────────────────────────────────────
+
+    /**
+     * A value held by the bag plus its ownership state and timestamps.
+     */
+    public static final class Entry<T> {
+        private final T             value;
+        private final AtomicInteger state = new AtomicInteger(STATE_NOT_IN_USE);
+        private final long          createdAt = System.currentTimeMillis();
+        private volatile long       lastAccessed = createdAt;
+        private volatile long       borrowedAtNanos;
+        // Leak detection — who holds this entry, and a sampled acquire stack
+        private volatile Thread     borrowerThread;
+        private volatile Throwable  borrowSite;
+        private volatile boolean    leakReported;
+
+        private Entry(T value) {
+            this.value = value;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getLastAccessed() {
+            return lastAccessed;
+        }
+
+        public void touch(long now) {
+            this.lastAccessed = now;
+        }
+
+        public long getBorrowedAtNanos() {
+            return borrowedAtNanos;
+        }
+
+        public void markBorrowed(long nanoTime) {
+            this.borrowedAtNanos = nanoTime;
+        }
+
+        public Thread getBorrowerThread() {
+            return borrowerThread;
+        }
+
+        public Throwable getBorrowSite() {
+            return borrowSite;
+        }
+
+        public void markBorrower(Thread thread, Throwable site) {
+            this.borrowerThread = thread;
+            this.borrowSite     = site;
+            this.leakReported   = false;
+        }
+
+        public boolean isLeakReported() {
+            return leakReported;
+        }
+
+        public void setLeakReported(boolean leakReported) {
+            this.leakReported = leakReported;
+        }
+
+        public int getState() {
+            return state.get();
+        }
+
+        void setState(int newState) {
+            state.set(newState);
+        }
+
+        boolean compareAndSet(int expect, int update) {
+            return state.compareAndSet(expect, update);
+        }
+    }
+}
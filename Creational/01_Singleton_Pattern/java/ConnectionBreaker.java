@@ -0,0 +1,84 @@
+// Scenario: Circuit breaker around connection creation — Banking System
+// During a database outage every thread that finds the pool empty would try
+// DriverManager.getConnection() itself, each waiting out a connect timeout —
+// a reconnect storm against a database that is already struggling.
+
+/**
+ * CLOSED → consecutive creation failures reach failureThreshold → OPEN.
+ *
+ * While open, the pool opens no connections and acquires that cannot be
+ * served from idle connections fail at once. A single prober (scheduled by
+ * ConnectionPoolManager on its housekeeper) retries with exponential backoff
+ * and jitter; its first success closes the breaker again.
+ *
+ * The jitter keeps many pools (tenants, replicas, application nodes) that
+ * lost the same database from probing it in lockstep when it comes back.
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class ConnectionBreaker {
+
+    private final int  failureThreshold;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicBoolean open = new AtomicBoolean(false);
+    // Only the prober touches these while open
+    private volatile int  probeAttempts = 0;
+    private volatile long nextProbeAt   = 0; // epoch millis
+
+    ConnectionBreaker(int failureThreshold, long baseBackoffMillis, long maxBackoffMillis) {
+        this.failureThreshold  = failureThreshold;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis  = maxBackoffMillis;
+    }
+
+    boolean isOpen() {
+        return open.get();
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * @return true if this failure opened the breaker — the caller starts the prober
+     */
+    boolean onFailure() {
+        return consecutiveFailures.incrementAndGet() >= failureThreshold && trip();
+    }
+
+    /**
+     * Open regardless of the failure count, e.g. when warm-up could not reach readyAfter.
+     * @return true if the breaker was closed before — the caller starts the prober
+     */
+    boolean trip() {
+        if (!open.compareAndSet(false, true)) {
+            return false;
+        }
+        probeAttempts = 0;
+        return true;
+    }
+
+    void close() {
+        consecutiveFailures.set(0);
+        open.set(false);
+    }
+
+    // Delay before the next probe: base × 2^attempt, capped, then jittered into [½, 1] of that
+    long nextProbeDelayMillis() {
+        int attempt = probeAttempts++;
+        long delay = attempt >= 30 ? maxBackoffMillis : Math.min(maxBackoffMillis, baseBackoffMillis << attempt);
+        long jittered = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        nextProbeAt = System.currentTimeMillis() + jittered;
+        return jittered;
+    }
+
+    long getMillisUntilProbe() {
+        return Math.max(0, nextProbeAt - System.currentTimeMillis());
+    }
+}
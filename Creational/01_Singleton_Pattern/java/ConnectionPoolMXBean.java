@@ -0,0 +1,20 @@
+// Scenario: JMX view of the connection pool
+// Registered under "ConnectionPool:type=Pool,name=<poolName>" so JConsole,
+// VisualVM or a JMX exporter can read live gauges and the latest snapshot.
+
+public interface ConnectionPoolMXBean {
+
+    int getTotalConnections();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getThreadsAwaitingConnection();
+
+    // Borrowed + waiting acquires admitted at once (adapts under admission control)
+    int getConcurrencyLimit();
+
+    // Full counters + latency percentiles, exposed as a CompositeData
+    PoolStats getSnapshot();
+}
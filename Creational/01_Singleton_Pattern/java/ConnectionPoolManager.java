@@ -10,41 +10,115 @@
  * would instantly exhaust DB resources.
  */
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 
-public final class ConnectionPoolManager {
+public final class ConnectionPoolManager implements ConnectionPoolMXBean {
     // ── Singleton mechanics ──────────────────────────────────────────────────
 
     // Volatile ensures the instance reference is visible across all threads
     // after it is written — prevents CPU cache inconsistency
     private static volatile ConnectionPoolManager instance = null;
+    // Settings used when the singleton is first created — see configure()
+    private static PoolConfig pendingConfig = PoolConfig.builder().build();
+    // j.u.c lock instead of a class monitor: initialization does network I/O,
+    // and a virtual thread blocked inside `synchronized` pins its carrier
+    private static final ReentrantLock INIT_LOCK = new ReentrantLock();
 
-    private ConnectionPoolManager() {
+    private ConnectionPoolManager(PoolConfig config) {
+        this(config, null, null);
+    }
+
+    private ConnectionPoolManager(PoolConfig config, Semaphore sharedPermits, Runnable releaseListener) {
+        this.config          = config;
+        this.sharedPermits   = sharedPermits;
+        this.releaseListener = releaseListener;
+        this.breaker       = new ConnectionBreaker(config.getBreakerFailureThreshold(),
+                config.getBreakerBaseBackoff().toMillis(), config.getBreakerMaxBackoff().toMillis());
         initializePool();
+        this.replicas = startReplicas();
+    }
+
+    /**
+     * A standalone pool that is NOT the singleton — for TenantPoolManager, which
+     * runs one pool per tenant. Every open connection also holds one permit of
+     * sharedPermits, which caps connections across all pools sharing it.
+     * releaseListener runs after every return of a borrowed connection — by
+     * releaseConnection() or by close() on the connection itself.
+     */
+    static ConnectionPoolManager createPool(PoolConfig config, Semaphore sharedPermits, Runnable releaseListener) {
+        return new ConnectionPoolManager(config, sharedPermits, releaseListener);
+    }
+
+    /**
+     * Supply pool settings. Must be called before the first getInstance() —
+     * the pool is created with them; reconfigure() changes them afterwards.
+     */
+    public static void configure(PoolConfig config) {
+        INIT_LOCK.lock();
+        try {
+            if (instance != null) {
+                throw new IllegalStateException("Pool already initialized — call configure() before getInstance()");
+            }
+            pendingConfig = config;
+        } finally {
+            INIT_LOCK.unlock();
+        }
     }
 
     /**
      * Thread-safe Singleton via Double-Checked Locking (DCL).
      *
      * Outer null-check → skips expensive synchronization on every call after init
-     * synchronized block → only one thread enters during first-time creation
+     * INIT_LOCK → only one thread enters during first-time creation; waiters park
+     *             via LockSupport, so virtual threads unmount instead of pinning
      * Inner null-check → prevents two threads that both passed outer check from
      * each creating their own instance
      */
     public static ConnectionPoolManager getInstance() {
         // First check (without locking) for performance
         if (instance == null) {
-            synchronized (ConnectionPoolManager.class) {
+            INIT_LOCK.lock();
+            try {
                 // Second check (with locking) to ensure only one instance is created
                 if (instance == null) {
-                    instance = new ConnectionPoolManager();
+                    instance = new ConnectionPoolManager(pendingConfig);
                 }
+            } finally {
+                INIT_LOCK.unlock();
             }
         }
         return instance;
@@ -52,49 +126,241 @@ public final class ConnectionPoolManager {
 
     // ── Connection Pool Logic ────────────────────────────────────────────────
 
-    private static final int POOL_SIZE = 10;
-    private static final int ACQUIRE_TIMEOUT = 5; // seconds
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/bank_db";
-    private static final String DB_USER = "bank_user";
-    private static final String DB_PASS = "bank_password";
-    /* When you have env file */
-    // private static final String DB_URL = System.getenv("BANK_DB_URL");
-    // private static final String DB_USER = System.getenv("BANK_DB_USER");
-    // private static final String DB_PASS = System.getenv("BANK_DB_PASS");
-
-    private BlockingQueue<Connection> availableConnections;
+    // Replaced wholesale by reconfigure(); every read sees one consistent PoolConfig
+    private volatile PoolConfig config;
+    // Connections created at or before this (epoch millis) are retired — set when
+    // reconfigure() changes the URL or credentials
+    private volatile long retireCreatedUpTo = 0;
+    private final ReentrantLock reconfigureLock = new ReentrantLock();
+    // Set only when registerMBean() succeeded; null otherwise
+    private volatile ObjectName registeredMBean;
+
+    // Lock-free, thread-affine container — see ConnectionBag for the borrow tiers
+    private final ConnectionBag<PooledConnection> connectionBag = new ConnectionBag<>(this::addBagItem);
     private final AtomicInteger activeConnections = new AtomicInteger(0);
+    // Open connections plus ones currently being created — never exceeds maxSize
+    private final AtomicInteger totalConnections = new AtomicInteger(0);
+    private final AtomicInteger pendingAdds = new AtomicInteger(0);
+    // Null for the singleton; shared by tenant pools to enforce a global cap
+    private final Semaphore sharedPermits;
+    // Null for the singleton; lets TenantPoolManager count a tenant's borrows
+    private final Runnable  releaseListener;
+    private final PoolMetrics metrics = new PoolMetrics();
+    // Null unless leakDetectionThreshold is set — opt-in
+    private LeakDetector leakDetector;
+    // Null unless admissionControl is on — opt-in
+    private AdmissionController admission;
+    private final ConnectionBreaker breaker;
+
+    // Connections are opened here, never on a borrower's thread (unless the pool is at zero)
+    private ThreadPoolExecutor connectionAdder;
+    // Sweeps idle connections (lifetime, idle timeout, validation) and tops the pool up to minIdle
+    private ScheduledExecutorService housekeeper;
+    // acquireAsync() deadlines only — a slow sweep must not delay them, and a
+    // cancelled deadline (the common case) is dropped from the queue at once
+    private ScheduledThreadPoolExecutor asyncTimeouts;
+    private volatile boolean shutdown = false;
 
     private void initializePool() {
-        availableConnections = new ArrayBlockingQueue<>(POOL_SIZE);
-        System.out.println("[ConnectionPoolManager] Warming up " + POOL_SIZE + " connections...");
+        int warmupCount = config.getMinIdle();
+        int readyAfter  = config.getReadyAfter() < 0 ? warmupCount : Math.min(config.getReadyAfter(), warmupCount);
+        System.out.println("[ConnectionPoolManager] Warming up " + warmupCount
+                + " connections (max " + config.getMaxSize() + ", ready after " + readyAfter + ")...");
 
-        for (int i = 0; i < POOL_SIZE; i++) {
-            try {
-                Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
-                availableConnections.offer(conn);
-                System.out.println("[ConnectionPoolManager] Connection " + (i + 1) + " established and added to pool.");
-            } catch (SQLException e) {
-                throw new RuntimeException("Failed to initialize DB connection pool", e);
+        // Before warm-up: a failing warm-up schedules the breaker's prober here
+        housekeeper = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("pool-housekeeper"));
+        boolean ready = warmUp(warmupCount, readyAfter);
+
+        // Unbounded queue — slot reservations already cap the adds, and maxSize can grow;
+        // adds submitted after shutdown are rejected and give their slot back
+        connectionAdder = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                daemonThreadFactory("pool-connection-adder"));
+        long interval = config.getHousekeepingInterval().toMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+
+        asyncTimeouts = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("pool-async-timeout"));
+        asyncTimeouts.setRemoveOnCancelPolicy(true);
+
+        if (!config.getLeakDetectionThreshold().isZero()) {
+            leakDetector = new LeakDetector(config.getLeakDetectionThreshold().toMillis(), config.getLeakStackSampleRate());
+            long scanInterval = leakDetector.getScanIntervalMillis();
+            housekeeper.scheduleWithFixedDelay(this::scanForLeaks, scanInterval, scanInterval, TimeUnit.MILLISECONDS);
+        }
+
+        if (config.isAdmissionControl()) {
+            admission = new AdmissionController(config.getMaxSize(), config.getMaxQueuedAcquires());
+        }
+
+        registerMBean();
+        if (ready) {
+            System.out.println("[ConnectionPoolManager] Pool ready.");
+        } else {
+            // No exception out of getInstance() — the prober restores the pool once the DB is back
+            System.out.println("[ConnectionPoolManager] Pool started without a database; acquires fail fast until it is reachable.");
+            if (breaker.trip()) {
+                scheduleProbe();
             }
         }
-        System.out.println("[ConnectionPoolManager] Pool ready.");
     }
 
     /**
-     * Borrow a connection. Blocks up to ACQUIRE_TIMEOUT seconds if pool is full.
+     * Open warmupCount connections concurrently on a bounded executor and return
+     * as soon as readyAfter of them are usable. The rest keep opening in the
+     * background — a 150 ms handshake no longer multiplies by the pool size on
+     * the getInstance() path.
+     *
+     * @return false if readyAfter connections could not be opened because the
+     *         database failed them. Slots the shared cap withholds are not
+     *         failures — the target shrinks to what could be reserved.
+     */
+    private boolean warmUp(int warmupCount, int readyAfter) {
+        if (warmupCount == 0) {
+            return true;
+        }
+
+        // Slots first. A shortfall here is the shared cap (other tenants hold the
+        // connections), not a database problem — it must not trip the breaker
+        int reserved = 0;
+        while (reserved < warmupCount && tryReserveSlot()) {
+            reserved++;
+        }
+        if (reserved < warmupCount) {
+            System.out.println("[ConnectionPoolManager] Shared connection cap reached — warming up " + reserved
+                    + " of " + warmupCount + " connections; the rest open on demand.");
+        }
+        int target = Math.min(readyAfter, reserved);
+        if (reserved == 0) {
+            return true;
+        }
+
+        CountDownLatch ready = new CountDownLatch(target);
+        AtomicInteger failures = new AtomicInteger(0);
+        AtomicReference<SQLException> firstFailure = new AtomicReference<>();
+        ExecutorService warmupExecutor = Executors.newFixedThreadPool(
+                Math.min(config.getWarmupParallelism(), reserved), daemonThreadFactory("pool-warmup"));
+
+        final int attempts = reserved;
+        for (int i = 0; i < attempts; i++) {
+            final int connectionNumber = i + 1;
+            warmupExecutor.execute(() -> {
+                try {
+                    createConnection();
+                    ready.countDown();
+                    EventLog.debug("ConnectionPoolManager", "Connection {} established and added to pool.", connectionNumber);
+                } catch (SQLException e) {
+                    firstFailure.compareAndSet(null, e);
+                    // Once target is out of reach, release the waiting constructor
+                    if (attempts - failures.incrementAndGet() < target) {
+                        while (ready.getCount() > 0) ready.countDown();
+                    }
+                }
+            });
+        }
+        warmupExecutor.shutdown(); // queued connections still open; threads exit afterwards
+
+        try {
+            ready.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandonWarmUp(warmupExecutor);
+            throw new RuntimeException("Interrupted while warming up DB connection pool", e);
+        }
+
+        if (reserved - failures.get() < target) {
+            abandonWarmUp(warmupExecutor);
+            System.out.println("[ConnectionPoolManager] Failed to initialize DB connection pool: "
+                    + firstFailure.get().getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    // Warm-up tasks that never started still hold the slot reserved for them
+    private void abandonWarmUp(ExecutorService warmupExecutor) {
+        for (int i = warmupExecutor.shutdownNow().size(); i > 0; i--) {
+            releaseSlot();
+        }
+    }
+
+    /**
+     * Borrow a connection. Served from this thread's recently used connections
+     * first, then the shared list; blocks up to the acquire timeout only when
+     * every connection is in use. New connections are added in the background
+     * while we wait — creation only happens inline when the pool is at zero.
+     *
+     * With admission control on, an acquire over the adaptive concurrency
+     * limit fails at once with PoolOverloadedException.
      */
     public Connection acquireConnection() throws InterruptedException, SQLException {
-        Connection conn = availableConnections.poll(ACQUIRE_TIMEOUT, TimeUnit.SECONDS);
+        if (admission == null) {
+            return borrowConnection();
+        }
+        try {
+            admission.enter(activeConnections.get());
+        } catch (PoolOverloadedException e) {
+            metrics.recordRejection();
+            throw e;
+        }
+        try {
+            return borrowConnection();
+        } finally {
+            admission.leave();
+        }
+    }
 
-        if (conn == null) {
-            throw new SQLException(
-                    "Connection pool exhausted. No connection available within "
-                            + ACQUIRE_TIMEOUT + "s. Active connections: " + activeConnections.get());
+    private Connection borrowConnection() throws InterruptedException, SQLException {
+        long start = System.nanoTime();
+        if (breaker.isOpen()) {
+            // Only what is already idle — never wait on a pool that cannot grow
+            ConnectionBag.Entry<PooledConnection> entry = pollIdleEntry();
+            if (entry == null) {
+                throw circuitOpen();
+            }
+            onBorrowed(entry, start);
+            return entry.getValue().getProxy();
+        }
+        if (totalConnections.get() == 0 && tryReserveSlot()) {
+            createConnection();
+        }
+
+        long timeoutMillis = config.getAcquireTimeout().toMillis();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        while (true) {
+            ConnectionBag.Entry<PooledConnection> entry =
+                    connectionBag.borrow(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+            if (entry == null) {
+                metrics.recordTimeout();
+                if (admission != null) {
+                    admission.onTimeout();
+                }
+                throw new SQLTimeoutException(
+                        "Connection pool exhausted. No connection available within "
+                                + timeoutMillis + "ms. Active connections: " + activeConnections.get());
+            }
+
+            // Only a timestamp compare here — validation runs in the housekeeper
+            if (shouldRetire(entry, System.currentTimeMillis())) {
+                closeConnection(entry);
+                continue;
+            }
+
+            onBorrowed(entry, start);
+            return entry.getValue().getProxy();
         }
+    }
 
+    private void onBorrowed(ConnectionBag.Entry<PooledConnection> entry, long acquireStart) {
+        long now = System.nanoTime();
+        entry.markBorrowed(now);
+        entry.getValue().onBorrow();
+        if (leakDetector != null) {
+            leakDetector.onBorrow(entry);
+        }
         activeConnections.incrementAndGet();
-        return conn;
+        metrics.recordAcquire(now - acquireStart);
     }
 
     /**
@@ -102,13 +368,676 @@ public final class ConnectionPoolManager {
      */
     public void releaseConnection(Connection conn) {
         if (conn != null) {
-            availableConnections.offer(conn);
+            PooledConnection pooled = PooledConnection.of(conn);
+            if (pooled == null || pooled.getEntry() == null) {
+                throw new IllegalArgumentException("Connection was not acquired from this pool");
+            }
+            if (pooled.getOwner() != this) {
+                pooled.getOwner().releaseConnection(conn); // a replica's connection
+                return;
+            }
+            if (!pooled.markReturned(conn)) {
+                return; // already returned — close() after releaseConnection(), a double release, or a stale proxy
+            }
+            ConnectionBag.Entry<PooledConnection> entry = pooled.getEntry();
+            long now = System.currentTimeMillis();
+            entry.touch(now);
             activeConnections.decrementAndGet();
+            long nowNanos = System.nanoTime();
+            long holdNanos = nowNanos - entry.getBorrowedAtNanos();
+            metrics.recordRelease(holdNanos);
+            if (admission != null) {
+                admission.onRelease(holdNanos);
+            }
+            if (leakDetector != null) {
+                leakDetector.onReturn(entry, nowNanos);
+            }
+
+            if (shutdown || shouldRetire(entry, now) || totalConnections.get() > config.getMaxSize()
+                    || !pooled.resetSessionState()) {
+                closeConnection(entry);
+            } else if (!handToAsyncWaiter(entry)) {
+                connectionBag.requite(entry);
+            }
+            if (releaseListener != null) {
+                releaseListener.run(); // last — the connection is already back
+            }
+        }
+    }
+
+    // ── Non-blocking acquire ─────────────────────────────────────────────────
+
+    // Pending acquireAsync() callers, oldest first
+    private final ConcurrentLinkedQueue<AsyncWaiter> asyncWaiters = new ConcurrentLinkedQueue<>();
+
+    private static final class AsyncWaiter {
+        final CompletableFuture<Connection> future = new CompletableFuture<>();
+        final long                          enqueuedAt = System.nanoTime();
+        // Who asked — the connection is handed over on whichever thread releases one
+        final Thread                        borrower;
+        final Throwable                     borrowSite; // null unless leak detection sampled it
+        volatile ScheduledFuture<?>         timeout;
+
+        AsyncWaiter(Thread borrower, Throwable borrowSite) {
+            this.borrower   = borrower;
+            this.borrowSite = borrowSite;
+        }
+    }
+
+    public CompletableFuture<Connection> acquireAsync() {
+        return acquireAsync(config.getAcquireTimeout());
+    }
+
+    /**
+     * Borrow a connection without blocking the caller. The future completes on
+     * whichever thread next calls releaseConnection (or adds a connection), so
+     * dependent stages should use the *Async variants if they do real work.
+     * Waiters are served strictly FIFO; each fails with SQLTimeoutException at
+     * its own deadline.
+     */
+    public CompletableFuture<Connection> acquireAsync(Duration timeout) {
+        // Fast path — only when nobody is queued ahead of us, to keep FIFO order
+        if (asyncWaiters.isEmpty()) {
+            long start = System.nanoTime();
+            ConnectionBag.Entry<PooledConnection> entry = pollIdleEntry();
+            if (entry != null) {
+                onBorrowed(entry, start);
+                return CompletableFuture.completedFuture(entry.getValue().getProxy());
+            }
+        }
+        if (breaker.isOpen()) {
+            return CompletableFuture.failedFuture(circuitOpen());
+        }
+
+        AsyncWaiter waiter = new AsyncWaiter(Thread.currentThread(),
+                leakDetector != null ? leakDetector.sampleSite() : null);
+        asyncWaiters.offer(waiter);
+        try {
+            waiter.timeout = asyncTimeouts.schedule(() -> {
+                if (waiter.future.completeExceptionally(new SQLTimeoutException(
+                        "Connection pool exhausted. No connection available within "
+                                + timeout.toMillis() + "ms. Active connections: " + activeConnections.get()))) {
+                    asyncWaiters.remove(waiter);
+                    metrics.recordTimeout();
+                }
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            asyncWaiters.remove(waiter);
+            waiter.future.completeExceptionally(new SQLException("Connection pool shut down"));
+            return waiter.future;
+        }
+
+        addBagItem(connectionBag.getWaitingThreadCount() + asyncWaiters.size());
+        // A release may have slipped in between the fast path and offer()
+        drainAsyncWaiters();
+        return waiter.future;
+    }
+
+    // Non-blocking borrow with the same lifetime check as acquireConnection()
+    private ConnectionBag.Entry<PooledConnection> pollIdleEntry() {
+        while (true) {
+            ConnectionBag.Entry<PooledConnection> entry;
+            try {
+                entry = connectionBag.borrow(0, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (entry == null || !shouldRetire(entry, System.currentTimeMillis())) {
+                return entry;
+            }
+            closeConnection(entry);
+        }
+    }
+
+    // Give a borrowed entry to the oldest live async waiter, skipping timed-out ones
+    private boolean handToAsyncWaiter(ConnectionBag.Entry<PooledConnection> entry) {
+        AsyncWaiter waiter;
+        while ((waiter = asyncWaiters.poll()) != null) {
+            activeConnections.incrementAndGet();
+            entry.markBorrowed(System.nanoTime());
+            entry.getValue().onBorrow(); // before complete() — the callback may close() right away
+            if (leakDetector != null) {
+                leakDetector.onBorrow(entry, waiter.borrower, waiter.borrowSite);
+            }
+            if (waiter.future.complete(entry.getValue().getProxy())) {
+                metrics.recordAcquire(entry.getBorrowedAtNanos() - waiter.enqueuedAt);
+                ScheduledFuture<?> timeout = waiter.timeout;
+                if (timeout != null) timeout.cancel(false);
+                return true;
+            }
+            entry.getValue().markReturned(entry.getValue().getProxy());
+            activeConnections.decrementAndGet();
+        }
+        return false;
+    }
+
+    // Serve queued async waiters from whatever is idle in the bag right now
+    private void drainAsyncWaiters() {
+        while (!asyncWaiters.isEmpty()) {
+            ConnectionBag.Entry<PooledConnection> entry = pollIdleEntry();
+            if (entry == null) {
+                return;
+            }
+            if (!handToAsyncWaiter(entry)) {
+                connectionBag.requite(entry);
+                return;
+            }
+        }
+    }
+
+    // ── Read replicas ────────────────────────────────────────────────────────
+
+    // Empty for a replica's own pool — only the singleton routes
+    private final List<ReadReplica> replicas;
+    private final AtomicInteger replicaCursor = new AtomicInteger(0);
+
+    private static final class ReadReplica {
+        final ConnectionPoolManager pool;
+        // Skip this replica until then (epoch millis); 0 → healthy
+        volatile long unavailableUntil = 0;
+
+        ReadReplica(ConnectionPoolManager pool) {
+            this.pool = pool;
+        }
+    }
+
+    private List<ReadReplica> startReplicas() {
+        List<String> urls = config.getReadReplicaUrls();
+        if (urls.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ReadReplica> started = new ArrayList<>(urls.size());
+        for (int i = 1; i <= urls.size(); i++) {
+            PoolConfig replicaConfig = config.forReplica(i);
+            System.out.println("[ConnectionPoolManager] Starting read replica pool '"
+                    + replicaConfig.getPoolName() + "'.");
+            started.add(new ReadReplica(new ConnectionPoolManager(replicaConfig, sharedPermits, null)));
+        }
+        return Collections.unmodifiableList(started);
+    }
+
+    /**
+     * Borrow a connection for read-only work — balance lookups, reports.
+     * Served by a read replica chosen per replicaSelection; replicas that
+     * recently failed to connect (or whose circuit is open) are skipped for
+     * replicaRetryInterval. A replica that is only saturated — acquire timeout
+     * or admission rejection — is passed over for this call alone. With no
+     * replicas configured, or none healthy, this is the primary's
+     * acquireConnection(). Replicas lag the primary: never read from one and
+     * then write based on what you read. Release through releaseConnection().
+     */
+    public Connection acquireForRead() throws InterruptedException, SQLException {
+        int count = replicas.size();
+        if (count > 0) {
+            long now = System.currentTimeMillis();
+            int first = config.getReplicaSelection() == PoolConfig.ReplicaSelection.LEAST_ACTIVE
+                    ? leastActiveReplica(now)
+                    : Math.floorMod(replicaCursor.getAndIncrement(), count);
+
+            for (int i = 0; i < count; i++) {
+                ReadReplica replica = replicas.get((first + i) % count);
+                if (replica.unavailableUntil > now) {
+                    continue;
+                }
+                try {
+                    Connection conn = replica.pool.acquireConnection();
+                    replica.unavailableUntil = 0;
+                    return conn;
+                } catch (PoolOverloadedException | SQLTimeoutException e) {
+                    // Busy, not down — try the next one, but don't sideline this one
+                } catch (SQLException e) {
+                    // Circuit open or the driver failed to connect
+                    replica.unavailableUntil = now + config.getReplicaRetryInterval().toMillis();
+                    EventLog.warn("ConnectionPoolManager", "Read replica '{}' unavailable, skipping for {} ms: {}",
+                            replica.pool.config.getPoolName(), config.getReplicaRetryInterval().toMillis(), e.getMessage());
+                }
+            }
+            metrics.recordReadFallback();
+        }
+        return acquireConnection();
+    }
+
+    private int leastActiveReplica(long now) {
+        int best = 0;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadReplica replica = replicas.get(i);
+            int active = replica.pool.activeConnections.get();
+            if (replica.unavailableUntil <= now && active < bestActive) {
+                best = i;
+                bestActive = active;
+            }
         }
+        return best;
     }
 
+    /**
+     * A pool in the registry by name: this pool's name for the primary,
+     * "<name>-replica-<n>" for replicas. Null if there is no such pool.
+     */
+    public ConnectionPoolManager getPool(String poolName) {
+        return pools().get(poolName);
+    }
+
+    public Set<String> getPoolNames() {
+        return pools().keySet();
+    }
+
+    private Map<String, ConnectionPoolManager> pools() {
+        Map<String, ConnectionPoolManager> pools = new LinkedHashMap<>();
+        pools.put(config.getPoolName(), this);
+        for (ReadReplica replica : replicas) {
+            pools.put(replica.pool.config.getPoolName(), replica.pool);
+        }
+        return pools;
+    }
+
+    /**
+     * Stop background threads and close every idle connection. Connections still
+     * borrowed are closed as they come back.
+     */
+    public void shutdown() {
+        for (ReadReplica replica : replicas) {
+            replica.pool.shutdown();
+        }
+        shutdown = true;
+        unregisterMBean();
+        housekeeper.shutdownNow();
+        asyncTimeouts.shutdownNow();
+        // Each queued add reserved a slot; one already running closes its own connection
+        for (int i = connectionAdder.shutdownNow().size(); i > 0; i--) {
+            pendingAdds.decrementAndGet();
+            releaseSlot();
+        }
+        AsyncWaiter waiter;
+        while ((waiter = asyncWaiters.poll()) != null) {
+            waiter.future.completeExceptionally(new SQLException("Connection pool shut down"));
+        }
+        for (ConnectionBag.Entry<PooledConnection> entry : connectionBag.values(ConnectionBag.STATE_NOT_IN_USE)) {
+            if (connectionBag.reserve(entry)) {
+                closeConnection(entry);
+            }
+        }
+    }
+
+    // ── Live reconfiguration ─────────────────────────────────────────────────
+
+    // The settings in effect right now
+    PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Apply new settings without a restart — see PoolConfigWatcher to drive
+     * this from a properties file. Live settings: minIdle, maxSize,
+     * acquireTimeout, idleTimeout, maxLifetime, validationTimeout,
+     * validationSkipWindow, and jdbcUrl/username/password. Everything else
+     * keeps its startup value.
+     *
+     *   - Shrink: idle connections above the new maxSize close now; borrowed
+     *     ones close as they come back, so no transaction is cut off.
+     *   - Grow: new connections open on the background adder; threads already
+     *     waiting get them first.
+     *   - New URL or credentials: new connections use them, and existing ones
+     *     are retired as they come back idle.
+     */
+    public void reconfigure(PoolConfig update) {
+        reconfigureLock.lock();
+        try {
+            PoolConfig previous = config;
+            PoolConfig next = previous.withLiveSettings(update);
+            config = next;
+
+            boolean newTarget = !next.getJdbcUrl().equals(previous.getJdbcUrl())
+                    || !Objects.equals(next.getUsername(), previous.getUsername())
+                    || !Objects.equals(next.getPassword(), previous.getPassword());
+            if (newTarget) {
+                retireCreatedUpTo = System.currentTimeMillis();
+            }
+            if (admission != null) {
+                admission.resize(next.getMaxSize());
+            }
+            System.out.println("[ConnectionPoolManager] Reconfigured '" + next.getPoolName() + "': minIdle "
+                    + previous.getMinIdle() + " → " + next.getMinIdle() + ", maxSize " + previous.getMaxSize()
+                    + " → " + next.getMaxSize() + ", acquireTimeout " + next.getAcquireTimeout().toMillis() + " ms"
+                    + (newTarget ? ", new connection target — retiring existing connections" : "") + ".");
+
+            retireIdle();
+            addBagItem(getThreadsAwaitingConnection());
+            fillPool();
+
+            for (int i = 0; i < replicas.size(); i++) {
+                replicas.get(i).pool.reconfigure(next.forReplica(i + 1));
+            }
+        } finally {
+            reconfigureLock.unlock();
+        }
+    }
+
+    // Close idle connections that are over maxSize or due for retirement
+    private void retireIdle() {
+        long now = System.currentTimeMillis();
+        for (ConnectionBag.Entry<PooledConnection> entry : connectionBag.values(ConnectionBag.STATE_NOT_IN_USE)) {
+            if (!connectionBag.reserve(entry)) {
+                continue;
+            }
+            if (shouldRetire(entry, now) || totalConnections.get() > config.getMaxSize()) {
+                closeConnection(entry);
+            } else {
+                connectionBag.unreserve(entry);
+            }
+        }
+    }
+
+    // ── Circuit breaker ──────────────────────────────────────────────────────
+
+    private SQLTransientConnectionException circuitOpen() {
+        return new SQLTransientConnectionException("Database unavailable — connection circuit open for pool '"
+                + config.getPoolName() + "', next reconnect attempt in " + breaker.getMillisUntilProbe() + " ms");
+    }
+
+    // Only called by whoever opened the breaker, then by the probe itself — one prober at a time
+    private void scheduleProbe() {
+        long delay = breaker.nextProbeDelayMillis();
+        EventLog.warn("ConnectionPoolManager", "Connection circuit open for '{}' — probing the database in {} ms.",
+                config.getPoolName(), delay);
+        try {
+            housekeeper.schedule(this::probe, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Pool shut down — nothing left to restore
+        }
+    }
+
+    private void probe() {
+        if (shutdown) {
+            return;
+        }
+        if (!tryReserveSlot()) {
+            scheduleProbe(); // shared cap reached — try again later
+            return;
+        }
+        ConnectionBag.Entry<PooledConnection> entry;
+        try {
+            entry = connect();
+        } catch (SQLException | RuntimeException e) {
+            scheduleProbe();
+            return;
+        }
+        breaker.close();
+        publish(entry);
+        EventLog.info("ConnectionPoolManager", "Database reachable again — connection circuit closed for '{}'.",
+                config.getPoolName());
+        drainAsyncWaiters();
+        fillPool();
+    }
+
+    // ── Elastic sizing ───────────────────────────────────────────────────────
+
+    // Called by the bag just before a borrower parks
+    private void addBagItem(int waiting) {
+        if (breaker.isOpen()) {
+            return; // the prober refills the pool
+        }
+        if (totalConnections.get() >= config.getMaxSize()) {
+            metrics.recordExhaustion();
+        } else if (waiting - pendingAdds.get() > 0 && tryReserveSlot()) {
+            submitAdd();
+        }
+    }
+
+    /**
+     * Background sweep over idle connections. Each one is reserved so no borrower
+     * can take it mid-check, then:
+     *   - closed if older than maxLifetime
+     *   - closed if idle longer than idleTimeout while above minIdle
+     *   - validated with isValid() unless it was used within validationSkipWindow
+     *     (a connection that just completed a transaction is known to be alive)
+     * After a DB failover this weeds out dead sockets before TransactionService
+     * ever sees them.
+     */
+    private void housekeep() {
+        try {
+            long idleTimeoutMillis = config.getIdleTimeout().toMillis();
+            long skipWindowMillis  = config.getValidationSkipWindow().toMillis();
+            int  validationSeconds = (int) Math.max(1, config.getValidationTimeout().toSeconds());
+
+            for (ConnectionBag.Entry<PooledConnection> entry : connectionBag.values(ConnectionBag.STATE_NOT_IN_USE)) {
+                if (!connectionBag.reserve(entry)) {
+                    continue; // borrowed since the snapshot was taken
+                }
+
+                long now = System.currentTimeMillis();
+                long idleMillis = now - entry.getLastAccessed();
+
+                if (shouldRetire(entry, now) || totalConnections.get() > config.getMaxSize()) {
+                    closeConnection(entry);
+                } else if (idleMillis > idleTimeoutMillis && totalConnections.get() > config.getMinIdle()) {
+                    closeConnection(entry);
+                } else if (idleMillis > skipWindowMillis && !isAlive(entry.getValue().getRawConnection(), validationSeconds)) {
+                    EventLog.info("ConnectionPoolManager", "Evicting connection that failed validation.");
+                    closeConnection(entry);
+                } else {
+                    connectionBag.unreserve(entry);
+                }
+            }
+
+            fillPool();
+        } catch (RuntimeException e) {
+            // Never let one bad sweep cancel the schedule
+            EventLog.warn("ConnectionPoolManager", "Housekeeping failed: {}", e.getMessage());
+        }
+    }
+
+    private void scanForLeaks() {
+        try {
+            int leaks = leakDetector.scan(connectionBag);
+            for (int i = 0; i < leaks; i++) {
+                metrics.recordLeakSuspected();
+            }
+        } catch (RuntimeException e) {
+            EventLog.warn("ConnectionPoolManager", "Leak scan failed: {}", e.getMessage());
+        }
+    }
+
+    // Past maxLifetime, or opened with a URL/credentials that reconfigure() replaced
+    private boolean shouldRetire(ConnectionBag.Entry<PooledConnection> entry, long now) {
+        return now - entry.getCreatedAt() > config.getMaxLifetime().toMillis()
+                || entry.getCreatedAt() <= retireCreatedUpTo;
+    }
+
+    private static boolean isAlive(Connection conn, int timeoutSeconds) {
+        try {
+            return conn.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Top the idle count back up to minIdle, asynchronously
+    private void fillPool() {
+        if (breaker.isOpen()) {
+            return;
+        }
+        int idle = connectionBag.count(ConnectionBag.STATE_NOT_IN_USE);
+        for (int i = idle + pendingAdds.get(); i < config.getMinIdle() && tryReserveSlot(); i++) {
+            submitAdd();
+        }
+    }
+
+    private void submitAdd() {
+        pendingAdds.incrementAndGet();
+        try {
+            connectionAdder.execute(() -> {
+                try {
+                    ConnectionBag.Entry<PooledConnection> entry = openConnection();
+                    // No longer pending once it is about to be published — a borrower
+                    // parking right after the hand-off must not count it again
+                    pendingAdds.decrementAndGet();
+                    publish(entry);
+                    drainAsyncWaiters();
+                } catch (SQLException e) {
+                    pendingAdds.decrementAndGet();
+                    EventLog.warn("ConnectionPoolManager", "Background connection add failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingAdds.decrementAndGet();
+            releaseSlot();
+        }
+    }
+
+    // Claim one of the maxSize slots before opening a connection
+    private boolean tryReserveSlot() {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                if (sharedPermits != null && !sharedPermits.tryAcquire()) {
+                    totalConnections.decrementAndGet();
+                    metrics.recordExhaustion();
+                    return false;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void releaseSlot() {
+        totalConnections.decrementAndGet();
+        if (sharedPermits != null) {
+            sharedPermits.release();
+        }
+    }
+
+    // Open a connection into a slot already reserved by the caller and publish it
+    private void createConnection() throws SQLException {
+        publish(openConnection());
+    }
+
+    // Hand a freshly opened connection to the bag — or close it if the pool shut down meanwhile
+    private void publish(ConnectionBag.Entry<PooledConnection> entry) {
+        connectionBag.add(entry);
+        // shutdown() may have swept the bag just before add(); a waiter that got
+        // the entry straight from add() closes it on release instead
+        if (shutdown && connectionBag.reserve(entry)) {
+            closeConnection(entry);
+        }
+    }
+
+    // Open a connection into a reserved slot without publishing it; frees the slot on failure
+    private ConnectionBag.Entry<PooledConnection> openConnection() throws SQLException {
+        if (breaker.isOpen()) {
+            releaseSlot();
+            throw circuitOpen();
+        }
+        return connect();
+    }
+
+    // openConnection() minus the breaker check — the prober's way in
+    private ConnectionBag.Entry<PooledConnection> connect() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection conn = DriverManager.getConnection(
+                    config.getJdbcUrl(), config.getUsername(), config.getPassword());
+            metrics.recordConnectionCreated(System.nanoTime() - start);
+            PooledConnection pooled = new PooledConnection(this, conn, config.getStatementCacheSize(), metrics);
+            // Attach before add() — add() may hand the entry straight to a waiter
+            pooled.attach(connectionBag.newEntry(pooled));
+            breaker.onSuccess();
+            return pooled.getEntry();
+        } catch (SQLException | RuntimeException e) {
+            releaseSlot();
+            metrics.recordCreationFailure();
+            if (breaker.onFailure()) {
+                scheduleProbe();
+            }
+            throw e;
+        }
+    }
+
+    // Caller must hold the entry (reserved or borrowed)
+    private void closeConnection(ConnectionBag.Entry<PooledConnection> entry) {
+        if (connectionBag.remove(entry)) {
+            releaseSlot();
+            metrics.recordConnectionClosed();
+            entry.getValue().closePhysically();
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ── Telemetry ────────────────────────────────────────────────────────────
+
+    /**
+     * Point-in-time counters and latency percentiles. Built from lock-free reads
+     * only, so polling it does not slow down acquire/release.
+     */
+    public PoolStats snapshot() {
+        return new PoolStats(config.getPoolName(), totalConnections.get(), activeConnections.get(),
+                getAvailableCount(), connectionBag.getWaitingThreadCount() + asyncWaiters.size(), metrics);
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    private ObjectName mbeanName() throws MalformedObjectNameException {
+        return new ObjectName("ConnectionPool:type=Pool,name=" + ObjectName.quote(config.getPoolName()));
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = mbeanName();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                registeredMBean = name;
+            } else {
+                System.out.println("[ConnectionPoolManager] JMX name " + name + " already taken — pool '"
+                        + config.getPoolName() + "' is not registered.");
+            }
+        } catch (JMException e) {
+            System.out.println("[ConnectionPoolManager] JMX registration failed: " + e.getMessage());
+        }
+    }
+
+    // Only the bean this instance registered — the name may belong to another pool
+    private void unregisterMBean() {
+        ObjectName name = registeredMBean;
+        if (name == null) {
+            return;
+        }
+        registeredMBean = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException ignored) {}
+    }
+
+    // ConnectionPoolMXBean
+    @Override public int       getTotalConnections()          { return totalConnections.get(); }
+    @Override public int       getActiveConnections()         { return activeConnections.get(); }
+    @Override public int       getIdleConnections()           { return getAvailableCount(); }
+    @Override public int       getThreadsAwaitingConnection() { return connectionBag.getWaitingThreadCount() + asyncWaiters.size(); }
+    // Without admission control only maxSize bounds concurrency
+    @Override public int       getConcurrencyLimit()          { return admission == null ? config.getMaxSize() : admission.getLimit(); }
+    @Override public PoolStats getSnapshot()                  { return snapshot(); }
+
     public int getAvailableCount() {
-        return availableConnections.size();
+        return connectionBag.count(ConnectionBag.STATE_NOT_IN_USE);
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
     }
 
     public int getActiveCount() {
@@ -0,0 +1,342 @@
+// Scenario: Pool event logging that stays off the acquire/release path
+// System.out.println takes the PrintStream lock and formats on the calling
+// thread — under contention, threads queue on stdout instead of the pool.
+// EventLog copies the event into a preallocated ring slot and returns; one
+// background thread formats and prints in batches.
+
+/**
+ * Usage:
+ *
+ *   EventLog.debug("Pool", "Connection acquired: {} (active {}, idle {})", conn.getId(), active, idle);
+ *   EventLog.warn("ConnectionPoolManager", "Housekeeping failed: {}", e);
+ *
+ * Messages are templates: each {} is replaced by the next argument when the
+ * event is printed, not when it is logged. long arguments are stored as
+ * longs, so logging a counter does not box it. A Throwable passed after the
+ * last placeholder is printed with its stack trace.
+ *
+ * Cost:
+ *   - Level disabled: one volatile read. Guard argument computation that is
+ *     itself expensive with isEnabled().
+ *   - Level enabled: one CAS to claim a slot plus a few field writes — no
+ *     allocation, no lock, no formatting.
+ *
+ * The buffer never blocks a logging thread. If it is full, the event is
+ * dropped and counted; the drainer reports the count with its next batch.
+ *
+ * Output is asynchronous, so it can interleave differently with direct
+ * System.out writes. flush() waits until everything logged so far is
+ * printed. The pool keeps printing one-time lifecycle messages (warm-up,
+ * ready, reconfigured) directly and uses EventLog for events that can repeat
+ * while it serves traffic.
+ */
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public final class EventLog {
+
+    public enum Level { DEBUG, INFO, WARN, OFF }
+
+    private static final int  CAPACITY        = 1 << 13;
+    private static final int  MAX_ARGS        = 4;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static volatile Level level = Level.INFO;
+
+    // ── Ring buffer ──────────────────────────────────────────────────────────
+    // Bounded MPSC queue over preallocated slots. A slot's sequence says whose
+    // turn it is: == p → free for the producer claiming position p;
+    // == p + 1 → published, ready for the drainer.
+
+    private static final class Slot {
+        volatile long  sequence;
+        Level          level;
+        String         source;
+        String         template;
+        int            argCount;
+        int            longMask; // bit i set → argument i is longs[i]
+        final Object[] objects = new Object[MAX_ARGS];
+        final long[]   longs   = new long[MAX_ARGS];
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private static final Slot[]     slots   = new Slot[CAPACITY];
+    private static final int        mask    = CAPACITY - 1;
+    private static final AtomicLong tail    = new AtomicLong(0); // next position to claim
+    private static final LongAdder  dropped = new LongAdder();
+    private static volatile long    printed = 0;                 // positions below this are on stdout
+    private static long             head    = 0;                 // drainer only
+    private static long             reportedDrops = 0;           // drainer only
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            slots[i] = new Slot(i);
+        }
+        Thread drainer = new Thread(EventLog::drainLoop, "event-log");
+        drainer.setDaemon(true);
+        drainer.start();
+        // Daemon thread — print whatever is still buffered when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::drain, "event-log-shutdown"));
+    }
+
+    private EventLog() {}
+
+    // ── Level gating ─────────────────────────────────────────────────────────
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static boolean isEnabled(Level eventLevel) {
+        return eventLevel != Level.OFF && eventLevel.ordinal() >= level.ordinal();
+    }
+
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // ── Logging ──────────────────────────────────────────────────────────────
+
+    public static void debug(String source, String message) {
+        log(Level.DEBUG, source, message);
+    }
+
+    public static void debug(String source, String template, Object a) {
+        log(Level.DEBUG, source, template, a);
+    }
+
+    public static void debug(String source, String template, Object a, Object b) {
+        log(Level.DEBUG, source, template, a, b);
+    }
+
+    public static void debug(String source, String template, Object a, Object b, Object c) {
+        log(Level.DEBUG, source, template, a, b, c);
+    }
+
+    public static void debug(String source, String template, Object a, long x, long y) {
+        log(Level.DEBUG, source, template, a, x, y);
+    }
+
+    public static void debug(String source, String template, long x) {
+        log(Level.DEBUG, source, template, x);
+    }
+
+    public static void info(String source, String message) {
+        log(Level.INFO, source, message);
+    }
+
+    public static void info(String source, String template, Object a) {
+        log(Level.INFO, source, template, a);
+    }
+
+    public static void info(String source, String template, Object a, Object b) {
+        log(Level.INFO, source, template, a, b);
+    }
+
+    public static void info(String source, String template, Object a, Object b, Object c) {
+        log(Level.INFO, source, template, a, b, c);
+    }
+
+    public static void info(String source, String template, Object a, long x, long y) {
+        log(Level.INFO, source, template, a, x, y);
+    }
+
+    public static void warn(String source, String message) {
+        log(Level.WARN, source, message);
+    }
+
+    public static void warn(String source, String template, Object a) {
+        log(Level.WARN, source, template, a);
+    }
+
+    public static void warn(String source, String template, Object a, Object b) {
+        log(Level.WARN, source, template, a, b);
+    }
+
+    public static void warn(String source, String template, Object a, Object b, Object c) {
+        log(Level.WARN, source, template, a, b, c);
+    }
+
+    public static void log(Level eventLevel, String source, String message) {
+        Slot slot = claim(eventLevel, source, message);
+        if (slot != null) {
+            slot.argCount = 0;
+            publish(slot);
+        }
+    }
+
+    public static void log(Level eventLevel, String source, String template, Object a) {
+        Slot slot = claim(eventLevel, source, template);
+        if (slot != null) {
+            slot.objects[0] = a;
+            slot.argCount = 1;
+            publish(slot);
+        }
+    }
+
+    public static void log(Level eventLevel, String source, String template, Object a, Object b) {
+        Slot slot = claim(eventLevel, source, template);
+        if (slot != null) {
+            slot.objects[0] = a;
+            slot.objects[1] = b;
+            slot.argCount = 2;
+            publish(slot);
+        }
+    }
+
+    public static void log(Level eventLevel, String source, String template, Object a, Object b, Object c) {
+        Slot slot = claim(eventLevel, source, template);
+        if (slot != null) {
+            slot.objects[0] = a;
+            slot.objects[1] = b;
+            slot.objects[2] = c;
+            slot.argCount = 3;
+            publish(slot);
+        }
+    }
+
+    public static void log(Level eventLevel, String source, String template, Object a, long x, long y) {
+        Slot slot = claim(eventLevel, source, template);
+        if (slot != null) {
+            slot.objects[0] = a;
+            slot.longs[1] = x;
+            slot.longs[2] = y;
+            slot.longMask = 0b110;
+            slot.argCount = 3;
+            publish(slot);
+        }
+    }
+
+    public static void log(Level eventLevel, String source, String template, long x) {
+        Slot slot = claim(eventLevel, source, template);
+        if (slot != null) {
+            slot.longs[0] = x;
+            slot.longMask = 0b1;
+            slot.argCount = 1;
+            publish(slot);
+        }
+    }
+
+    /**
+     * Block until every event logged before this call has been printed, or the
+     * timeout passes. For demos that mix EventLog output with direct prints.
+     */
+    public static void flush(long timeout, TimeUnit unit) {
+        long target   = tail.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (printed < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+        }
+    }
+
+    public static void flush() {
+        flush(1, TimeUnit.SECONDS);
+    }
+
+    // null → level disabled or buffer full
+    private static Slot claim(Level eventLevel, String source, String template) {
+        if (!isEnabled(eventLevel)) {
+            return null;
+        }
+        long position = tail.get();
+        while (true) {
+            Slot slot = slots[(int) position & mask];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.level    = eventLevel;
+                    slot.source   = source;
+                    slot.template = template;
+                    slot.longMask = 0;
+                    return slot;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                dropped.increment(); // the drainer is a full lap behind
+                return null;
+            } else {
+                position = tail.get(); // another producer took this position
+            }
+        }
+    }
+
+    private static void publish(Slot slot) {
+        slot.sequence = slot.sequence + 1; // only the claiming producer writes it now
+    }
+
+    // ── Drainer ──────────────────────────────────────────────────────────────
+
+    private static void drainLoop() {
+        while (true) {
+            if (!drain()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // One batch: format everything published, print it with a single write
+    private static synchronized boolean drain() {
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            Slot slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            format(slot, batch);
+            Arrays.fill(slot.objects, null); // don't keep arguments reachable
+            slot.sequence = head + CAPACITY;
+            head++;
+        }
+        long drops = dropped.sum();
+        if (drops != reportedDrops) {
+            batch.append("[EventLog] ").append(drops - reportedDrops)
+                 .append(" events dropped — buffer full\n");
+            reportedDrops = drops;
+        }
+        if (batch.length() == 0) {
+            return false;
+        }
+        System.out.print(batch);
+        System.out.flush();
+        printed = head;
+        return true;
+    }
+
+    private static void format(Slot slot, StringBuilder out) {
+        out.append('[').append(slot.source).append("] ");
+        String template = slot.template;
+        int argument = 0;
+        int from = 0;
+        int placeholder;
+        while (argument < slot.argCount && (placeholder = template.indexOf("{}", from)) >= 0) {
+            out.append(template, from, placeholder);
+            if ((slot.longMask & (1 << argument)) != 0) {
+                out.append(slot.longs[argument]);
+            } else {
+                out.append(slot.objects[argument]);
+            }
+            argument++;
+            from = placeholder + 2;
+        }
+        out.append(template, from, template.length()).append('\n');
+        // A Throwable left over after the last placeholder → its stack trace
+        if (argument < slot.argCount && slot.objects[slot.argCount - 1] instanceof Throwable) {
+            StringWriter trace = new StringWriter();
+            ((Throwable) slot.objects[slot.argCount - 1]).printStackTrace(new PrintWriter(trace));
+            out.append(trace);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+// Scenario: A netted-delta flush whose commit failed in flight — Banking System
+// Thrown by a TransferEngine.Ledger when the COMMIT of applyDeltas() errors.
+// The server may have committed before the connection dropped, so the engine
+// must not merge these deltas back and re-apply them — it hands them to
+// reconciliation instead, the same way TransferResult.outcomeUnknown does.
+
+import java.sql.SQLException;
+import java.util.Map;
+
+public class FlushOutcomeUnknownException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Long> deltas;
+
+    public FlushOutcomeUnknownException(Map<String, Long> deltas, Throwable cause) {
+        super("Commit failed — " + deltas.size() + " account delta(s) may or may not have been applied", cause);
+        this.deltas = Map.copyOf(deltas);
+    }
+
+    public Map<String, Long> getDeltas() { return deltas; }
+}
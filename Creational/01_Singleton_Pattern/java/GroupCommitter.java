@@ -0,0 +1,236 @@
+// Scenario: Group commit for concurrent transfers — Banking System
+// Many threads call transferFunds at once; instead of one commit (one fsync)
+// each, their transfers ride together in a single DB transaction.
+
+/**
+ * One flusher thread drains the queue: it takes the first waiting transfer,
+ * then keeps collecting until the window closes or the batch is full, and
+ * applies the whole group on one pooled connection with a single commit.
+ * While it is committing group N, arrivals pile up into group N+1 — so under
+ * load batches grow on their own, and at low load a transfer waits at most
+ * one window.
+ *
+ * Every transfer runs behind its own savepoint, so one bad account rolls back
+ * only that transfer; the caller of each transfer gets its own result.
+ */
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class GroupCommitter {
+
+    private final long windowNanos;
+    private final int  maxBatchSize;
+
+    private final LinkedBlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private static final class PendingTransfer {
+        private static final int QUEUED = 0, CLAIMED = 1, CANCELLED = 2;
+
+        final Transfer                transfer;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        // The caller cancels or the flusher claims — whoever gets there first
+        final AtomicInteger           state  = new AtomicInteger(QUEUED);
+
+        PendingTransfer(Transfer transfer) {
+            this.transfer = transfer;
+        }
+
+        // Flusher: about to apply it — from here on the caller waits for the outcome
+        boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+
+        // Caller: withdraw it — true means it is never applied
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+    }
+
+    GroupCommitter(Duration window, int maxBatchSize) {
+        if (maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        this.windowNanos  = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = new Thread(this::flushLoop, "group-commit-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queue a transfer and block until its group has committed or it failed.
+     * Blocking is a CompletableFuture park — virtual-thread friendly.
+     *
+     * @throws TransferOutcomeUnknownException if its group's commit failed
+     * @throws InterruptedException only if the transfer was withdrawn before the
+     *         flusher started applying it. Once it has, an interrupt cannot undo
+     *         it — the caller keeps waiting for the real outcome, and the
+     *         interrupt flag is restored on return.
+     */
+    void transfer(Transfer transfer) throws SQLException, InterruptedException {
+        if (!running) throw new SQLException("Group committer is shut down");
+
+        PendingTransfer pending = new PendingTransfer(transfer);
+        queue.offer(pending);
+        // shutdown() may have drained the queue between the check above and the offer
+        if (!running && pending.cancel()) {
+            queue.remove(pending);
+            throw new SQLException("Group committer is shut down");
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    pending.result.get();
+                    return;
+                } catch (InterruptedException e) {
+                    if (pending.cancel()) {
+                        queue.remove(pending); // the flusher also skips it if it already took it
+                        throw e;
+                    }
+                    interrupted = true; // claimed — the outcome is on its way
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof TransferOutcomeUnknownException) throw (TransferOutcomeUnknownException) cause;
+            throw new SQLException("Transfer failed in group commit", cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        flusher.interrupt();
+    }
+
+    // ── Flusher ──────────────────────────────────────────────────────────────
+
+    private void flushLoop() {
+        try {
+            collectAndCommit();
+        } finally {
+            // Flusher gone, however it ended — callers must not queue behind it
+            running = false;
+            PendingTransfer pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result.completeExceptionally(new SQLException("Group committer is shut down"));
+            }
+        }
+    }
+
+    private void collectAndCommit() {
+        List<PendingTransfer> group = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                group.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+
+                // Fill the group until the window closes or it is full
+                while (group.size() < maxBatchSize) {
+                    queue.drainTo(group, maxBatchSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= maxBatchSize || remaining <= 0) break;
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    group.add(next);
+                }
+
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (PendingTransfer pending : group) {
+                    pending.result.completeExceptionally(new SQLException("Group committer interrupted", e));
+                }
+                break;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    // Runs on the flusher thread, which never has a TransactionScope — callers
+    // inside a scope join it in TransactionService.transferFunds() instead
+    private void commitGroup(List<PendingTransfer> group) throws InterruptedException {
+        ConnectionPoolManager poolManager = ConnectionPoolManager.getInstance();
+        Connection conn = null;
+        List<PendingTransfer> applied = new ArrayList<>(group.size());
+
+        try {
+            conn = poolManager.acquireConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement debit = conn.prepareStatement(TransactionService.DEBIT_SQL);
+                 PreparedStatement credit = conn.prepareStatement(TransactionService.CREDIT_SQL)) {
+
+                for (PendingTransfer pending : group) {
+                    if (!pending.claim()) {
+                        continue; // its caller was interrupted and withdrew it
+                    }
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        apply(debit, credit, pending.transfer);
+                        conn.releaseSavepoint(savepoint);
+                        applied.add(pending);
+                    } catch (SQLException e) {
+                        // Undo just this transfer; the rest of the group carries on
+                        conn.rollback(savepoint);
+                        pending.result.completeExceptionally(e);
+                    }
+                }
+            }
+
+            try {
+                conn.commit(); // one commit for the whole group
+            } catch (SQLException e) {
+                // The group may have committed before the error reached us
+                for (PendingTransfer pending : applied) {
+                    pending.result.completeExceptionally(new TransferOutcomeUnknownException(pending.transfer, e));
+                }
+                throw e; // the rest of the group fails as usual
+            }
+            for (PendingTransfer pending : applied) {
+                pending.result.complete(null);
+            }
+        } catch (SQLException | RuntimeException e) {
+            try {
+                if (conn != null)
+                    conn.rollback();
+            } catch (Exception ignored) {}
+            for (PendingTransfer pending : group) {
+                pending.result.completeExceptionally(e); // no-op for already-failed items
+            }
+        } finally {
+            poolManager.releaseConnection(conn);
+        }
+    }
+
+    private static void apply(PreparedStatement debit, PreparedStatement credit, Transfer transfer)
+            throws SQLException {
+        TransactionService.bindLeg(debit, transfer.getFromAccount(), transfer.getAmount());
+        if (debit.executeUpdate() == 0) {
+            throw new SQLException("Source account not found: " + transfer.getFromAccount());
+        }
+
+        TransactionService.bindLeg(credit, transfer.getToAccount(), transfer.getAmount());
+        if (credit.executeUpdate() == 0) {
+            throw new SQLException("Destination account not found: " + transfer.getToAccount());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+// Scenario: Client retries must not debit twice — Banking System
+// A client that times out on transferFunds cannot tell whether the transfer
+// committed, so it retries with the same idempotency key. Without
+// deduplication every retry is another DB transaction — and, if the first
+// attempt did commit, a second debit. Retry storms multiply that.
+
+/**
+ * Usage:
+ *
+ *   IdempotentTransferService transfers =
+ *           new IdempotentTransferService(new TransactionService(), 100_000, Duration.ofMinutes(10));
+ *   TransferResult result = transfers.transferFunds(requestId, "ACC-1", "ACC-2", amount);
+ *
+ * Per idempotency key, within the time-to-live:
+ *
+ *   first call         → runs the transfer, records the outcome
+ *   call while running → waits for the first attempt, gets its outcome
+ *   call after success → gets the recorded outcome; no DB work
+ *   call after failure → runs again; a failure is shared with the callers
+ *                        already waiting, but not remembered, so a retry
+ *                        after a transient error can still succeed
+ *   call after a failed commit → gets the recorded unknown outcome; the
+ *                        transfer may have been applied, so it is not run
+ *                        again until the entry expires
+ *   different transfer → IllegalArgumentException; a key names one request
+ *
+ * Bounds: entries expire ttl after the first attempt started, and at most
+ * maxEntries are kept — past that the oldest finished entries go first.
+ * Because every entry has the same ttl, insertion order is also expiry order,
+ * so eviction only ever looks at the head of one queue. An attempt that is
+ * still running is never evicted: it goes to the back of the queue and the
+ * scan carries on past it, so one slow transfer does not hold up eviction of
+ * the finished entries behind it. The cache can overshoot maxEntries briefly
+ * while attempts finish.
+ *
+ * Against a journaled TransactionService a recorded success means "durably
+ * journaled": the journal applies it at least once, so a retry must not
+ * journal it again. Calls inside a TransactionScope are refused — the
+ * outcome is not known until the caller's transaction ends.
+ *
+ * The cache is per process. Keys retried against another node, or after a
+ * restart, are not deduplicated.
+ */
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class IdempotentTransferService {
+
+    private static final class Entry {
+        final String                            key;
+        final Transfer                          transfer;
+        final long                              expiresAtNanos;
+        final CompletableFuture<TransferResult> outcome = new CompletableFuture<>();
+
+        Entry(String key, Transfer transfer, long expiresAtNanos) {
+            this.key            = key;
+            this.transfer       = transfer;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+
+        boolean isSameTransfer(Transfer other) {
+            return transfer.getFromAccount().equals(other.getFromAccount())
+                    && transfer.getToAccount().equals(other.getToAccount())
+                    && transfer.getAmount().equals(other.getAmount());
+        }
+    }
+
+    private final TransactionService delegate;
+    private final int                maxEntries;
+    private final long               ttlNanos;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry>       insertionOrder = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue — counted here instead
+    private final AtomicInteger      queuedEntries  = new AtomicInteger();
+    // One evictor at a time; everyone else skips rather than queue behind it
+    private final ReentrantLock      evictionLock = new ReentrantLock();
+
+    private final LongAdder executed   = new LongAdder();
+    private final LongAdder replayed   = new LongAdder(); // answered from a finished entry
+    private final LongAdder joined     = new LongAdder(); // waited on an attempt in flight
+
+    public IdempotentTransferService(TransactionService delegate, int maxEntries, Duration ttl) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.delegate   = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos   = ttl.toNanos();
+    }
+
+    /**
+     * Run the transfer once per idempotency key. Never throws for a failed
+     * transfer — the failure is in the returned result, the same instance for
+     * every caller that shared the attempt.
+     *
+     * @throws IllegalArgumentException if the key was already used for a different transfer
+     * @throws IllegalStateException if called inside a TransactionScope
+     */
+    public TransferResult transferFunds(String idempotencyKey, String fromAccount, String toAccount, Money amount) {
+        if (TransactionScope.isActive()) {
+            // The transfer would join the caller's transaction, which can still
+            // roll back after we recorded it as committed
+            throw new IllegalStateException("Idempotent transfers commit on their own — call outside a TransactionScope");
+        }
+        Transfer transfer = new Transfer(fromAccount, toAccount, amount);
+
+        while (true) {
+            long now = System.nanoTime();
+            Entry fresh = new Entry(idempotencyKey, transfer, now + ttlNanos);
+            Entry existing = entries.putIfAbsent(idempotencyKey, fresh);
+
+            if (existing == null) {
+                insertionOrder.offer(fresh);
+                queuedEntries.incrementAndGet();
+                evictIfNeeded();
+                return execute(fresh);
+            }
+            if (existing.isExpired(now) && existing.outcome.isDone()) {
+                entries.remove(idempotencyKey, existing); // stale — next pass starts a new attempt
+                continue;
+            }
+            if (!existing.isSameTransfer(transfer)) {
+                throw new IllegalArgumentException("Idempotency key " + idempotencyKey
+                        + " was already used for " + existing.transfer + ", not " + transfer);
+            }
+
+            (existing.outcome.isDone() ? replayed : joined).increment();
+            return await(existing);
+        }
+    }
+
+    private TransferResult execute(Entry entry) {
+        executed.increment();
+        TransferResult result;
+        try {
+            delegate.transferFunds(entry.transfer.getFromAccount(), entry.transfer.getToAccount(),
+                    entry.transfer.getAmount());
+            result = TransferResult.committed(entry.transfer);
+        } catch (TransferOutcomeUnknownException e) {
+            // May have committed — remember it, so a retry cannot debit a second time
+            result = TransferResult.outcomeUnknown(entry.transfer, e);
+        } catch (RuntimeException e) {
+            // Rolled back — forget it so a later retry runs again; callers already waiting still get it
+            entries.remove(entry.key, entry);
+            result = TransferResult.failed(entry.transfer, e);
+        } catch (Error e) {
+            // Never leave the outcome open — duplicates would wait on it forever
+            entries.remove(entry.key, entry);
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        }
+        entry.outcome.complete(result);
+        return result;
+    }
+
+    // The attempt's outcome; an interrupted waiter gets a failed result of its own
+    private static TransferResult await(Entry entry) {
+        try {
+            return entry.outcome.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return TransferResult.failed(entry.transfer, e);
+        } catch (ExecutionException e) {
+            // Only an Error completes it exceptionally — execute() turns the rest into results
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Drop expired entries, then the oldest finished ones while over maxEntries
+    private void evictIfNeeded() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            // Bounded by one lap, so a queue of nothing but running attempts ends the scan
+            int budget = queuedEntries.get();
+            Entry oldest;
+            while (budget-- > 0
+                    && (oldest = insertionOrder.peek()) != null
+                    && (oldest.isExpired(now) || entries.size() > maxEntries)) {
+                insertionOrder.poll();
+                if (!oldest.outcome.isDone()) {
+                    // Still running — keep its dedup, look at the next one
+                    insertionOrder.offer(oldest);
+                    continue;
+                }
+                queuedEntries.decrementAndGet();
+                entries.remove(oldest.key, oldest); // no-op if it failed or was replaced
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // ── Stats ────────────────────────────────────────────────────────────────
+
+    public int getCachedKeyCount() {
+        return entries.size();
+    }
+
+    // Attempts that reached TransactionService
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    // Duplicates answered without DB work — from a finished attempt or by waiting on one in flight
+    public long getDeduplicatedCount() {
+        return replayed.sum() + joined.sum();
+    }
+
+    public long getJoinedInFlightCount() {
+        return joined.sum();
+    }
+}
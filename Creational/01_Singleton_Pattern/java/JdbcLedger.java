@@ -0,0 +1,89 @@
+// Scenario: TransferEngine's view of the accounts table
+// Reads a balance on first touch and writes netted deltas in one batched
+// transaction, always through the ConnectionPoolManager singleton. Both
+// filter on currency, like TransactionService, so a USD engine can neither
+// read nor move a EUR account.
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class JdbcLedger implements TransferEngine.Ledger {
+    private static final String BALANCE_SQL = "SELECT balance FROM accounts WHERE account_id = ? AND currency = ?";
+    private static final String APPLY_SQL   = "UPDATE accounts SET balance = balance + ? WHERE account_id = ? AND currency = ?";
+
+    @Override
+    public long loadBalance(String account, String currency) throws SQLException, InterruptedException {
+        ConnectionPoolManager poolManager = ConnectionPoolManager.getInstance();
+        Connection conn = null;
+
+        try {
+            conn = poolManager.acquireConnection();
+            try (PreparedStatement select = conn.prepareStatement(BALANCE_SQL)) {
+                select.setString(1, account);
+                select.setString(2, currency);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Account not found in " + currency + ": " + account);
+                    }
+                    return rs.getLong(1); // minor units
+                }
+            }
+        } finally {
+            poolManager.releaseConnection(conn);
+        }
+    }
+
+    @Override
+    public void applyDeltas(Map<String, Long> deltas, String currency) throws SQLException, InterruptedException {
+        ConnectionPoolManager poolManager = ConnectionPoolManager.getInstance();
+        Connection conn = null;
+
+        try {
+            conn = poolManager.acquireConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement update = conn.prepareStatement(APPLY_SQL)) {
+                List<String> accounts = new ArrayList<>(deltas.size());
+                for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                    update.setLong(1, delta.getValue());
+                    update.setString(2, delta.getKey());
+                    update.setString(3, currency);
+                    update.addBatch();
+                    accounts.add(delta.getKey());
+                }
+
+                // An account deleted or re-denominated since it was loaded matches
+                // no row — fail the flush rather than drop its delta
+                int[] updateCounts = update.executeBatch();
+                for (int i = 0; i < updateCounts.length; i++) {
+                    if (updateCounts[i] == 0 || updateCounts[i] == Statement.EXECUTE_FAILED) {
+                        throw new SQLException("Account not found in " + currency + ": " + accounts.get(i));
+                    }
+                }
+            }
+
+            try {
+                conn.commit();
+            } catch (SQLException e) {
+                // The server may have committed before the error reached us
+                throw new FlushOutcomeUnknownException(deltas, e);
+            }
+        } catch (FlushOutcomeUnknownException e) {
+            throw e;
+        } catch (SQLException e) {
+            try {
+                if (conn != null)
+                    conn.rollback();
+            } catch (Exception ignored) {}
+            throw e;
+        } finally {
+            poolManager.releaseConnection(conn);
+        }
+    }
+}
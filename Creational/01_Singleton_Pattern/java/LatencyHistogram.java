@@ -0,0 +1,108 @@
+// Scenario: Low-overhead latency histogram for pool telemetry
+// Log-linear buckets over nanoseconds, recorded with one atomic increment.
+// Readers never block writers — percentiles are computed from a plain scan.
+
+/**
+ * Each power of two is split into SUB_BUCKETS linear slots, so any recorded
+ * value lands in a bucket whose width is at most 1/SUB_BUCKETS of its value
+ * (≈12.5% worst-case error). That is plenty for p50/p99 dashboards and costs
+ * 512 longs per histogram — no allocation on the recording path.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT    = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray  buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder        count   = new LongAdder();
+    private final LongAdder        sum     = new LongAdder();
+    private final LongAccumulator  max     = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(indexOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    // Fold another histogram into this one — e.g. per-thread histograms after a benchmark run
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long n = other.buckets.get(i);
+            if (n != 0) {
+                buckets.addAndGet(i, n);
+            }
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        max.accumulate(other.max.get());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / n;
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0–100).
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // ── Bucket math ──────────────────────────────────────────────────────────
+
+    // Values below SUB_BUCKETS get exact buckets; above that, the top bit picks
+    // the power-of-two band and the next SUB_BUCKET_BITS bits pick the slot
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift     = magnitude - SUB_BUCKET_BITS;
+        int slot      = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + slot;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int slot  = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + slot + 1) << shift) - 1;
+    }
+}
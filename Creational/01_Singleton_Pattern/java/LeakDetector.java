@@ -0,0 +1,92 @@
+// Scenario: Connection leak detection — Banking System
+// Remembers who borrowed each connection and reports holds that outlive a
+// threshold, so "pool exhausted" comes with the names of the culprits.
+
+/**
+ * Recording on acquire is two field writes (thread + timestamp). The expensive
+ * part — capturing a stack trace — only happens for 1 in stackSampleRate
+ * borrows, which keeps the detector cheap enough to leave on in production.
+ * A leaking call site repeats, so sampling still catches it quickly.
+ *
+ * The scan itself runs on the pool's housekeeper thread, never on a borrower.
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+final class LeakDetector {
+
+    private final long thresholdNanos;
+    private final int  stackSampleRate;
+
+    LeakDetector(long thresholdMillis, int stackSampleRate) {
+        this.thresholdNanos  = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.stackSampleRate = Math.max(1, stackSampleRate);
+    }
+
+    // Acquire path — called right after the entry was marked borrowed
+    void onBorrow(ConnectionBag.Entry<PooledConnection> entry) {
+        onBorrow(entry, Thread.currentThread(), sampleSite());
+    }
+
+    // For a borrow completed on another thread — acquireAsync() captures the
+    // borrower when it queues, and the releasing thread hands both over here
+    void onBorrow(ConnectionBag.Entry<PooledConnection> entry, Thread borrower, Throwable site) {
+        entry.markBorrower(borrower, site);
+    }
+
+    // A stack trace of the caller for 1 in stackSampleRate borrows, else null
+    Throwable sampleSite() {
+        return ThreadLocalRandom.current().nextInt(stackSampleRate) == 0
+                ? new Throwable("Connection acquired here")
+                : null;
+    }
+
+    // Release path — only does work for a connection we already complained about
+    void onReturn(ConnectionBag.Entry<PooledConnection> entry, long nowNanos) {
+        if (entry.isLeakReported()) {
+            EventLog.info("ConnectionPoolManager", "Previously reported leaked connection returned after {} ms by thread '{}'.",
+                    TimeUnit.NANOSECONDS.toMillis(nowNanos - entry.getBorrowedAtNanos()), threadName(entry.getBorrowerThread()));
+        }
+    }
+
+    /**
+     * Report every borrowed connection held longer than the threshold, once per borrow.
+     *
+     * @return number of newly reported leaks
+     */
+    int scan(ConnectionBag<PooledConnection> bag) {
+        long now = System.nanoTime();
+        int reported = 0;
+
+        for (ConnectionBag.Entry<PooledConnection> entry : bag.values(ConnectionBag.STATE_IN_USE)) {
+            long heldNanos = now - entry.getBorrowedAtNanos();
+            if (heldNanos < thresholdNanos || entry.isLeakReported()) {
+                continue;
+            }
+            entry.setLeakReported(true);
+            reported++;
+
+            Throwable site = entry.getBorrowSite();
+            if (site != null) {
+                // Trailing Throwable → printed with its stack trace
+                EventLog.warn("ConnectionPoolManager", "Possible connection leak: held for {} ms by thread '{}'.",
+                        TimeUnit.NANOSECONDS.toMillis(heldNanos), threadName(entry.getBorrowerThread()), site);
+            } else {
+                EventLog.warn("ConnectionPoolManager", "Possible connection leak: held for {} ms by thread '{}'."
+                        + " (acquire site not sampled — lower leakStackSampleRate to capture more)",
+                        TimeUnit.NANOSECONDS.toMillis(heldNanos), threadName(entry.getBorrowerThread()));
+            }
+        }
+        return reported;
+    }
+
+    long getScanIntervalMillis() {
+        // Half the threshold so a leak is reported at most 1.5× threshold late
+        return Math.max(100, TimeUnit.NANOSECONDS.toMillis(thresholdNanos) / 2);
+    }
+
+    private static String threadName(Thread thread) {
+        return thread == null ? "unknown" : thread.getName();
+    }
+}
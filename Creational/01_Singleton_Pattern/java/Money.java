@@ -0,0 +1,103 @@
+// Scenario: Exact money amounts for the transfer path — Banking System
+// A double cannot hold 0.10 exactly, and the error compounds across millions
+// of transfers. Money is a whole number of minor units (cents, pence, yen)
+// plus an ISO 4217 currency code.
+
+/**
+ * Immutable and made of one long and one String reference, so the transfer
+ * path binds it with setLong()/setString() — no boxing and no BigDecimal.
+ * Instances are safe to share: a fixed fee or a test amount can be created
+ * once and reused, and a short-lived Money that never escapes a call is
+ * scalar-replaced by the JIT.
+ *
+ * Arithmetic is exact and overflow-checked; mixing currencies throws.
+ */
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+public final class Money implements Comparable<Money> {
+
+    private final long   minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency   = currency;
+    }
+
+    /**
+     * @param minorUnits amount in the currency's smallest unit, e.g. 1999 for USD 19.99
+     * @param currency   ISO 4217 code, e.g. "USD"
+     */
+    public static Money of(long minorUnits, String currency) {
+        if (currency == null || currency.length() != 3
+                || !isUpperLetter(currency.charAt(0)) || !isUpperLetter(currency.charAt(1))
+                || !isUpperLetter(currency.charAt(2))) {
+            throw new IllegalArgumentException("Currency must be a 3-letter ISO 4217 code: " + currency);
+        }
+        return new Money(minorUnits, currency);
+    }
+
+    public long   getMinorUnits() { return minorUnits; }
+    public String getCurrency()   { return currency; }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public boolean isSameCurrency(Money other) {
+        return currency.equals(other.currency);
+    }
+
+    private static boolean isUpperLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!isSameCurrency(other)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    // Display only — formatting allocates, so keep it off the hot path
+    @Override
+    public String toString() {
+        int digits;
+        try {
+            digits = Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+        } catch (IllegalArgumentException e) {
+            digits = 2; // unknown code — assume cents
+        }
+        return BigDecimal.valueOf(minorUnits, digits).toPlainString() + " " + currency;
+    }
+}
@@ -0,0 +1,67 @@
+// Scenario: Lock-free command queue for a single-writer lane
+// Many producer threads, exactly one consumer thread. Fixed capacity,
+// preallocated slots — no locks and no per-offer node allocation.
+
+/**
+ * Producers claim a sequence with one getAndIncrement on the tail, wait for the
+ * slot to be free (only when the buffer is full), then publish by writing the
+ * slot. The consumer reads its head slot; null means "not published yet".
+ * Because only the consumer ever advances head, it needs no CAS at all.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+final class MpscRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int                     mask;
+    private final AtomicLong              tail = new AtomicLong(0); // next sequence to claim
+    private volatile long                 head = 0;                 // next sequence to consume
+
+    MpscRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask  = capacity - 1;
+    }
+
+    /**
+     * Publish an element; applies back-pressure by spinning/parking while full.
+     */
+    void offer(T element) {
+        long sequence = tail.getAndIncrement();
+        int  capacity = mask + 1;
+
+        // Wait until the consumer has freed the slot this sequence maps to
+        for (int spins = 0; sequence - head >= capacity; spins++) {
+            if (spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1_000);
+            }
+        }
+        slots.set((int) sequence & mask, element);
+    }
+
+    /**
+     * Consumer only. Returns the next element or null if none is published.
+     */
+    T poll() {
+        long current = head;
+        int  index   = (int) current & mask;
+        T element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head = current + 1;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+}
@@ -0,0 +1,539 @@
+// Scenario: Connection pool settings — Banking System
+// Immutable settings object read by ConnectionPoolManager.
+// Built before the singleton is first touched; reconfigure() and
+// PoolConfigWatcher swap in a new, fully validated instance at runtime.
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+public final class PoolConfig {
+
+    // How acquireForRead() picks among healthy replicas
+    public enum ReplicaSelection { ROUND_ROBIN, LEAST_ACTIVE }
+
+    private final String   poolName;
+    private final String   jdbcUrl;
+    private final String   username;
+    private final String   password;
+    private final int      minIdle;
+    private final int      maxSize;
+    private final Duration acquireTimeout;
+    private final Duration idleTimeout;
+    private final Duration housekeepingInterval;
+    private final int      warmupParallelism;
+    private final Duration maxLifetime;
+    private final Duration validationTimeout;
+    private final Duration validationSkipWindow;
+    private final Duration leakDetectionThreshold;
+    private final int      leakStackSampleRate;
+    private final int      statementCacheSize;
+    private final int      readyAfter;
+
+    // Read replicas — each gets its own pool behind the singleton
+    private final List<String>     readReplicaUrls;
+    private final ReplicaSelection replicaSelection;
+    private final Duration         replicaRetryInterval;
+
+    // Admission control in front of acquireConnection() — off by default
+    private final boolean admissionControl;
+    private final int     maxQueuedAcquires;
+
+    // Circuit breaker around connection creation
+    private final int      breakerFailureThreshold;
+    private final Duration breakerBaseBackoff;
+    private final Duration breakerMaxBackoff;
+
+    // Private — only Builder can instantiate
+    private PoolConfig(Builder builder) {
+        if (builder.jdbcUrl == null || builder.jdbcUrl.isBlank())
+            throw new IllegalStateException("jdbcUrl is required");
+        if (builder.maxSize < 1)
+            throw new IllegalStateException("maxSize must be >= 1");
+        if (builder.minIdle < 0 || builder.minIdle > builder.maxSize)
+            throw new IllegalStateException("minIdle must be between 0 and maxSize");
+        if (builder.statementCacheSize < 0)
+            throw new IllegalStateException("statementCacheSize must be >= 0");
+        if (builder.warmupParallelism < 1)
+            throw new IllegalStateException("warmupParallelism must be >= 1");
+        if (builder.maxQueuedAcquires < 0)
+            throw new IllegalStateException("maxQueuedAcquires must be >= 0");
+        if (builder.breakerFailureThreshold < 1)
+            throw new IllegalStateException("breakerFailureThreshold must be >= 1");
+        if (builder.breakerBaseBackoff.isNegative() || builder.breakerBaseBackoff.isZero()
+                || builder.breakerMaxBackoff.compareTo(builder.breakerBaseBackoff) < 0)
+            throw new IllegalStateException("breakerBaseBackoff must be > 0 and <= breakerMaxBackoff");
+        // Scheduled and waited on in whole milliseconds — below 1 ms would be 0
+        requireMillis(builder.acquireTimeout, "acquireTimeout");
+        requireMillis(builder.idleTimeout, "idleTimeout");
+        requireMillis(builder.housekeepingInterval, "housekeepingInterval");
+        requireMillis(builder.maxLifetime, "maxLifetime");
+        requireMillis(builder.validationTimeout, "validationTimeout");
+        requireMillis(builder.replicaRetryInterval, "replicaRetryInterval");
+        if (builder.validationSkipWindow.isNegative())
+            throw new IllegalStateException("validationSkipWindow must be >= 0");
+        if (builder.leakDetectionThreshold.isNegative())
+            throw new IllegalStateException("leakDetectionThreshold must be >= 0 (0 disables it)");
+
+        this.poolName               = builder.poolName;
+        this.jdbcUrl                = builder.jdbcUrl;
+        this.username               = builder.username;
+        this.password               = builder.password;
+        this.minIdle                = builder.minIdle;
+        this.maxSize                = builder.maxSize;
+        this.acquireTimeout         = builder.acquireTimeout;
+        this.idleTimeout            = builder.idleTimeout;
+        this.housekeepingInterval   = builder.housekeepingInterval;
+        this.warmupParallelism      = builder.warmupParallelism;
+        this.readyAfter             = builder.readyAfter;
+        this.maxLifetime            = builder.maxLifetime;
+        this.validationTimeout      = builder.validationTimeout;
+        this.validationSkipWindow   = builder.validationSkipWindow;
+        this.leakDetectionThreshold = builder.leakDetectionThreshold;
+        this.leakStackSampleRate    = builder.leakStackSampleRate;
+        this.statementCacheSize     = builder.statementCacheSize;
+        this.readReplicaUrls        = List.copyOf(builder.readReplicaUrls);
+        this.replicaSelection       = builder.replicaSelection;
+        this.replicaRetryInterval   = builder.replicaRetryInterval;
+        this.admissionControl       = builder.admissionControl;
+        this.maxQueuedAcquires      = builder.maxQueuedAcquires;
+        this.breakerFailureThreshold = builder.breakerFailureThreshold;
+        this.breakerBaseBackoff      = builder.breakerBaseBackoff;
+        this.breakerMaxBackoff       = builder.breakerMaxBackoff;
+    }
+
+    // Getters
+    public String   getPoolName()               { return poolName; }
+    public String   getJdbcUrl()                { return jdbcUrl; }
+    public String   getUsername()               { return username; }
+    public String   getPassword()               { return password; }
+    public int      getMinIdle()                { return minIdle; }
+    public int      getMaxSize()                { return maxSize; }
+    public Duration getAcquireTimeout()         { return acquireTimeout; }
+    public Duration getIdleTimeout()            { return idleTimeout; }
+    public Duration getHousekeepingInterval()   { return housekeepingInterval; }
+    public int      getWarmupParallelism()      { return warmupParallelism; }
+    public int      getReadyAfter()             { return readyAfter; }
+    public Duration getMaxLifetime()            { return maxLifetime; }
+    public Duration getValidationTimeout()      { return validationTimeout; }
+    public Duration getValidationSkipWindow()   { return validationSkipWindow; }
+    public Duration getLeakDetectionThreshold() { return leakDetectionThreshold; }
+    public int      getLeakStackSampleRate()    { return leakStackSampleRate; }
+    public int      getStatementCacheSize()     { return statementCacheSize; }
+
+    public List<String>     getReadReplicaUrls()      { return readReplicaUrls; }
+    public ReplicaSelection getReplicaSelection()     { return replicaSelection; }
+    public Duration         getReplicaRetryInterval() { return replicaRetryInterval; }
+
+    public boolean isAdmissionControl()   { return admissionControl; }
+    public int     getMaxQueuedAcquires() { return maxQueuedAcquires; }
+
+    public int      getBreakerFailureThreshold() { return breakerFailureThreshold; }
+    public Duration getBreakerBaseBackoff()      { return breakerBaseBackoff; }
+    public Duration getBreakerMaxBackoff()       { return breakerMaxBackoff; }
+
+    /**
+     * Settings for the pool of read replica number (1-based): same sizing and
+     * credentials as this pool, its own URL and name, and no replicas of its own.
+     * readyAfter is 0 so a replica that is down never blocks startup.
+     */
+    PoolConfig forReplica(int number) {
+        Builder builder = new Builder();
+        builder.poolName               = poolName + "-replica-" + number;
+        builder.jdbcUrl                = readReplicaUrls.get(number - 1);
+        builder.username               = username;
+        builder.password               = password;
+        builder.minIdle                = minIdle;
+        builder.maxSize                = maxSize;
+        builder.acquireTimeout         = acquireTimeout;
+        builder.idleTimeout            = idleTimeout;
+        builder.housekeepingInterval   = housekeepingInterval;
+        builder.warmupParallelism      = warmupParallelism;
+        builder.readyAfter             = 0;
+        builder.maxLifetime            = maxLifetime;
+        builder.validationTimeout      = validationTimeout;
+        builder.validationSkipWindow   = validationSkipWindow;
+        builder.leakDetectionThreshold = leakDetectionThreshold;
+        builder.leakStackSampleRate    = leakStackSampleRate;
+        builder.statementCacheSize     = statementCacheSize;
+        builder.admissionControl       = admissionControl;
+        builder.maxQueuedAcquires      = maxQueuedAcquires;
+        builder.breakerFailureThreshold = breakerFailureThreshold;
+        builder.breakerBaseBackoff      = breakerBaseBackoff;
+        builder.breakerMaxBackoff       = breakerMaxBackoff;
+        return builder.build();
+    }
+
+    /**
+     * This config renamed for one tenant's pool, so every tenant pool has its
+     * own JMX name and pool name even when they share one base config.
+     */
+    PoolConfig forTenant(String tenantId) {
+        Builder builder = toBuilder();
+        builder.poolName = poolName + "-tenant-" + tenantId;
+        return builder.build();
+    }
+
+    /**
+     * This config with the settings ConnectionPoolManager can change at runtime
+     * taken from update; everything else keeps its current value.
+     */
+    PoolConfig withLiveSettings(PoolConfig update) {
+        Builder builder = toBuilder();
+        builder.jdbcUrl              = update.jdbcUrl;
+        builder.username             = update.username;
+        builder.password             = update.password;
+        builder.minIdle              = update.minIdle;
+        builder.maxSize              = update.maxSize;
+        builder.acquireTimeout       = update.acquireTimeout;
+        builder.idleTimeout          = update.idleTimeout;
+        builder.maxLifetime          = update.maxLifetime;
+        builder.validationTimeout    = update.validationTimeout;
+        builder.validationSkipWindow = update.validationSkipWindow;
+        return builder.build();
+    }
+
+    private Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.poolName                = poolName;
+        builder.jdbcUrl                 = jdbcUrl;
+        builder.username                = username;
+        builder.password                = password;
+        builder.minIdle                 = minIdle;
+        builder.maxSize                 = maxSize;
+        builder.acquireTimeout          = acquireTimeout;
+        builder.idleTimeout             = idleTimeout;
+        builder.housekeepingInterval    = housekeepingInterval;
+        builder.warmupParallelism       = warmupParallelism;
+        builder.readyAfter              = readyAfter;
+        builder.maxLifetime             = maxLifetime;
+        builder.validationTimeout       = validationTimeout;
+        builder.validationSkipWindow    = validationSkipWindow;
+        builder.leakDetectionThreshold  = leakDetectionThreshold;
+        builder.leakStackSampleRate     = leakStackSampleRate;
+        builder.statementCacheSize      = statementCacheSize;
+        builder.readReplicaUrls.addAll(readReplicaUrls);
+        builder.replicaSelection        = replicaSelection;
+        builder.replicaRetryInterval    = replicaRetryInterval;
+        builder.admissionControl        = admissionControl;
+        builder.maxQueuedAcquires       = maxQueuedAcquires;
+        builder.breakerFailureThreshold = breakerFailureThreshold;
+        builder.breakerBaseBackoff      = breakerBaseBackoff;
+        builder.breakerMaxBackoff       = breakerMaxBackoff;
+        return builder;
+    }
+
+    // ── Loading from a file or the environment ───────────────────────────────
+
+    private static final String PROPERTY_PREFIX = "pool.";
+
+    // Settings that can be loaded — the builder method names
+    private static final List<String> LOADABLE_SETTINGS = List.of(
+            "poolName", "jdbcUrl", "username", "password", "minIdle", "maxSize",
+            "acquireTimeout", "idleTimeout", "housekeepingInterval", "warmupParallelism",
+            "readyAfter", "maxLifetime", "validationTimeout", "validationSkipWindow",
+            "leakDetectionThreshold", "leakStackSampleRate", "statementCacheSize");
+
+    /**
+     * Settings from a properties file. Keys are the builder method names with
+     * a "pool." prefix; durations are milliseconds or ISO-8601 (PT5S):
+     *
+     *   pool.jdbcUrl=jdbc:mysql://db:3306/bank_db
+     *   pool.maxSize=40
+     *   pool.acquireTimeout=2000
+     *
+     * Missing keys keep their defaults; an unknown pool.* key is an error, so
+     * a typo is not silently ignored. See PoolConfigWatcher for live reload.
+     */
+    public static PoolConfig load(Path file) throws IOException {
+        return load(file, builder());
+    }
+
+    /**
+     * Settings from a properties file on top of base — keys missing from the
+     * file keep base's value rather than the default. For reloads, so that
+     * settings made in code or the environment survive an edit of the file.
+     */
+    public static PoolConfig load(Path file, PoolConfig base) throws IOException {
+        return load(file, base.toBuilder());
+    }
+
+    private static PoolConfig load(Path file, Builder builder) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(PROPERTY_PREFIX)) {
+                builder.set(key.substring(PROPERTY_PREFIX.length()), properties.getProperty(key).trim());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Settings from environment variables: BANK_DB_URL, BANK_DB_USER and
+     * BANK_DB_PASS for the connection, and BANK_POOL_<SETTING> for the rest
+     * (BANK_POOL_MAX_SIZE, BANK_POOL_ACQUIRE_TIMEOUT, ...).
+     */
+    public static PoolConfig fromEnvironment() {
+        return fromEnvironment(System.getenv());
+    }
+
+    static PoolConfig fromEnvironment(Map<String, String> environment) {
+        Builder builder = builder();
+        for (String setting : LOADABLE_SETTINGS) {
+            String value = environment.get(environmentName(setting));
+            if (value != null) {
+                builder.set(setting, value.trim());
+            }
+        }
+        return builder.build();
+    }
+
+    private static String environmentName(String setting) {
+        switch (setting) {
+            case "jdbcUrl":  return "BANK_DB_URL";
+            case "username": return "BANK_DB_USER";
+            case "password": return "BANK_DB_PASS";
+            default:         return "BANK_POOL_" + setting.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private static void requireMillis(Duration value, String name) {
+        if (value.toMillis() < 1)
+            throw new IllegalStateException(name + " must be at least 1 ms, got " + value);
+    }
+
+    // Entry point to the builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private String   poolName               = "primary";
+        private String   jdbcUrl                = "jdbc:mysql://localhost:3306/bank_db";
+        private String   username               = "bank_user";
+        private String   password               = "bank_password";
+        /* When you have env file */
+        // private String jdbcUrl  = System.getenv("BANK_DB_URL");
+        // private String username = System.getenv("BANK_DB_USER");
+        // private String password = System.getenv("BANK_DB_PASS");
+        private int      minIdle                = 2;
+        private int      maxSize                = 10;
+        private Duration acquireTimeout         = Duration.ofSeconds(5);
+        private Duration idleTimeout            = Duration.ofMinutes(10);
+        private Duration housekeepingInterval   = Duration.ofSeconds(30);
+        private int      warmupParallelism      = 4;
+        private int      readyAfter             = -1; // -1 → wait for every warm-up connection
+        private Duration maxLifetime            = Duration.ofMinutes(30);
+        private Duration validationTimeout      = Duration.ofSeconds(3);
+        private Duration validationSkipWindow   = Duration.ofMillis(500);
+        private Duration leakDetectionThreshold = Duration.ZERO; // ZERO → disabled
+        private int      leakStackSampleRate    = 16;
+        private int      statementCacheSize     = 32;
+
+        private final List<String> readReplicaUrls      = new ArrayList<>();
+        private ReplicaSelection   replicaSelection     = ReplicaSelection.ROUND_ROBIN;
+        private Duration           replicaRetryInterval = Duration.ofSeconds(10);
+
+        private boolean admissionControl  = false;
+        private int     maxQueuedAcquires = 50;
+
+        private int      breakerFailureThreshold = 5;
+        private Duration breakerBaseBackoff      = Duration.ofMillis(250);
+        private Duration breakerMaxBackoff       = Duration.ofSeconds(30);
+
+        private Builder() {}
+
+        // Shows up in logs and as the JMX name
+        public Builder poolName(String poolName) {
+            this.poolName = poolName;
+            return this;
+        }
+
+        public Builder jdbcUrl(String jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+            return this;
+        }
+
+        public Builder username(String username) {
+            this.username = username;
+            return this;
+        }
+
+        public Builder password(String password) {
+            this.password = password;
+            return this;
+        }
+
+        // Connections kept open even when nobody is using them
+        public Builder minIdle(int minIdle) {
+            this.minIdle = minIdle;
+            return this;
+        }
+
+        // Hard ceiling on open connections — protects the DB during bursts
+        public Builder maxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public Builder acquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+            return this;
+        }
+
+        // How long a connection above minIdle may sit unused before it is retired
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        public Builder housekeepingInterval(Duration housekeepingInterval) {
+            this.housekeepingInterval = housekeepingInterval;
+            return this;
+        }
+
+        // Max connections opened concurrently during warm-up
+        public Builder warmupParallelism(int warmupParallelism) {
+            this.warmupParallelism = warmupParallelism;
+            return this;
+        }
+
+        // getInstance() returns once this many connections are usable;
+        // the rest of the warm-up finishes in the background
+        public Builder readyAfter(int readyAfter) {
+            this.readyAfter = readyAfter;
+            return this;
+        }
+
+        // Connections older than this are retired — keep below the DB/proxy's own timeout
+        public Builder maxLifetime(Duration maxLifetime) {
+            this.maxLifetime = maxLifetime;
+            return this;
+        }
+
+        public Builder validationTimeout(Duration validationTimeout) {
+            this.validationTimeout = validationTimeout;
+            return this;
+        }
+
+        // A connection used this recently is trusted without an isValid() round-trip
+        public Builder validationSkipWindow(Duration validationSkipWindow) {
+            this.validationSkipWindow = validationSkipWindow;
+            return this;
+        }
+
+        // Report any connection held longer than this; Duration.ZERO turns detection off
+        public Builder leakDetectionThreshold(Duration leakDetectionThreshold) {
+            this.leakDetectionThreshold = leakDetectionThreshold;
+            return this;
+        }
+
+        // Capture the acquire stack for 1 in N borrows; 1 → every borrow (debugging)
+        public Builder leakStackSampleRate(int leakStackSampleRate) {
+            this.leakStackSampleRate = leakStackSampleRate;
+            return this;
+        }
+
+        // PreparedStatements cached per connection (LRU); 0 disables the cache
+        public Builder statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        // Each call adds one read replica with its own pool, used by acquireForRead()
+        public Builder addReadReplica(String jdbcUrl) {
+            this.readReplicaUrls.add(jdbcUrl);
+            return this;
+        }
+
+        public Builder replicaSelection(ReplicaSelection replicaSelection) {
+            this.replicaSelection = replicaSelection;
+            return this;
+        }
+
+        // A replica that failed an acquire is skipped this long before it is tried again
+        public Builder replicaRetryInterval(Duration replicaRetryInterval) {
+            this.replicaRetryInterval = replicaRetryInterval;
+            return this;
+        }
+
+        // Adaptive concurrency limit driven by hold times; acquires beyond it fail
+        // fast with PoolOverloadedException instead of waiting out acquireTimeout
+        public Builder admissionControl(boolean admissionControl) {
+            this.admissionControl = admissionControl;
+            return this;
+        }
+
+        // With admission control on, at most this many threads wait for a connection
+        public Builder maxQueuedAcquires(int maxQueuedAcquires) {
+            this.maxQueuedAcquires = maxQueuedAcquires;
+            return this;
+        }
+
+        // Consecutive connection-creation failures that open the circuit breaker
+        public Builder breakerFailureThreshold(int breakerFailureThreshold) {
+            this.breakerFailureThreshold = breakerFailureThreshold;
+            return this;
+        }
+
+        // While open, the DB is probed after base × 2^n (jittered), up to max
+        public Builder breakerBackoff(Duration breakerBaseBackoff, Duration breakerMaxBackoff) {
+            this.breakerBaseBackoff = breakerBaseBackoff;
+            this.breakerMaxBackoff  = breakerMaxBackoff;
+            return this;
+        }
+
+        // One setting by name, from a properties file or the environment
+        Builder set(String setting, String value) {
+            try {
+                switch (setting) {
+                    case "poolName":               return poolName(value);
+                    case "jdbcUrl":                return jdbcUrl(value);
+                    case "username":               return username(value);
+                    case "password":               return password(value);
+                    case "minIdle":                return minIdle(Integer.parseInt(value));
+                    case "maxSize":                return maxSize(Integer.parseInt(value));
+                    case "acquireTimeout":         return acquireTimeout(parseDuration(value));
+                    case "idleTimeout":            return idleTimeout(parseDuration(value));
+                    case "housekeepingInterval":   return housekeepingInterval(parseDuration(value));
+                    case "warmupParallelism":      return warmupParallelism(Integer.parseInt(value));
+                    case "readyAfter":             return readyAfter(Integer.parseInt(value));
+                    case "maxLifetime":            return maxLifetime(parseDuration(value));
+                    case "validationTimeout":      return validationTimeout(parseDuration(value));
+                    case "validationSkipWindow":   return validationSkipWindow(parseDuration(value));
+                    case "leakDetectionThreshold": return leakDetectionThreshold(parseDuration(value));
+                    case "leakStackSampleRate":    return leakStackSampleRate(Integer.parseInt(value));
+                    case "statementCacheSize":     return statementCacheSize(Integer.parseInt(value));
+                    default:
+                        throw new IllegalArgumentException("Unknown pool setting: " + setting);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid value for pool setting " + setting + ": " + value, e);
+            }
+        }
+
+        // Plain number → milliseconds; otherwise ISO-8601 (PT5S)
+        private static Duration parseDuration(String value) {
+            return value.chars().allMatch(Character::isDigit) && !value.isEmpty()
+                    ? Duration.ofMillis(Long.parseLong(value))
+                    : Duration.parse(value);
+        }
+
+        // Terminal method
+        public PoolConfig build() {
+            return new PoolConfig(this);
+        }
+    }
+}
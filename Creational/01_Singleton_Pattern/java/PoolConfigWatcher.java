@@ -0,0 +1,105 @@
+// Scenario: Resize the pool for a sale event without a redeploy — Banking System
+// Watches the pool's properties file and hands every saved change to
+// ConnectionPoolManager.reconfigure(), so in-flight transactions keep running.
+
+/**
+ * Usage:
+ *
+ *   Path file = Path.of("/etc/bank/pool.properties");
+ *   ConnectionPoolManager.configure(PoolConfig.load(file));
+ *   PoolConfigWatcher watcher = PoolConfigWatcher.start(file, ConnectionPoolManager.getInstance());
+ *
+ * A WatchService on the file's directory reports the save (editors often
+ * write a file in several steps, so events are debounced briefly). The file
+ * is applied on top of the pool's current config: only the keys it contains
+ * change. A file that fails to parse or validate is logged and ignored — the
+ * pool keeps its current settings.
+ *
+ * On Linux the WatchService is inotify-backed and reacts at once; some
+ * platforms poll, which can take several seconds.
+ */
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+public final class PoolConfigWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final Path                  file;
+    private final ConnectionPoolManager pool;
+    private final WatchService          watchService;
+    private final Thread                thread;
+
+    private PoolConfigWatcher(Path file, ConnectionPoolManager pool) throws IOException {
+        this.file         = file.toAbsolutePath();
+        this.pool         = pool;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watchLoop, "pool-config-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public static PoolConfigWatcher start(Path file, ConnectionPoolManager pool) throws IOException {
+        PoolConfigWatcher watcher = new PoolConfigWatcher(file, pool);
+        watcher.thread.start();
+        System.out.println("[PoolConfigWatcher] Watching " + watcher.file + " for pool settings.");
+        return watcher;
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = concernsOurFile(key);
+                // Let the writer finish, and fold its follow-up events into this reload
+                WatchKey more;
+                while ((more = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= concernsOurFile(more);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close() — stop watching
+        }
+    }
+
+    private boolean concernsOurFile(WatchKey key) {
+        boolean ours = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (context instanceof Path && file.getFileName().equals(context)) {
+                ours = true;
+            }
+        }
+        key.reset();
+        return ours;
+    }
+
+    private void reload() {
+        try {
+            // On top of the running config — a key deleted from the file keeps its
+            // current value instead of silently reverting to the builder default
+            pool.reconfigure(PoolConfig.load(file, pool.getConfig()));
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.out.println("[PoolConfigWatcher] Ignoring " + file.getFileName()
+                    + ", keeping current pool settings: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+}
@@ -0,0 +1,109 @@
+// Scenario: Connection pool instrumentation — Banking System
+// Lock-free counters and histograms updated on the acquire/release paths.
+// Reading them (snapshot, JMX) never contends with a borrower.
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class PoolMetrics {
+
+    // LongAdder stripes under contention — increments from 200 threads do not
+    // fight over one cache line the way an AtomicLong would
+    private final LongAdder acquires           = new LongAdder();
+    private final LongAdder releases           = new LongAdder();
+    private final LongAdder timeouts           = new LongAdder();
+    private final LongAdder exhaustionEvents   = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsClosed  = new LongAdder();
+    private final LongAdder creationFailures   = new LongAdder();
+    private final LongAdder leaksSuspected     = new LongAdder();
+    private final LongAdder statementHits      = new LongAdder();
+    private final LongAdder statementMisses    = new LongAdder();
+    private final LongAdder readFallbacks      = new LongAdder();
+    private final LongAdder rejections         = new LongAdder();
+
+    private final LatencyHistogram acquireWait  = new LatencyHistogram();
+    private final LatencyHistogram holdTime     = new LatencyHistogram();
+    private final LatencyHistogram creationTime = new LatencyHistogram();
+
+    // ── Recording (hot path) ─────────────────────────────────────────────────
+
+    public void recordAcquire(long waitNanos) {
+        acquires.increment();
+        acquireWait.record(waitNanos);
+    }
+
+    public void recordRelease(long holdNanos) {
+        releases.increment();
+        holdTime.record(holdNanos);
+    }
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    // A borrower had to park with the pool already at maxSize
+    public void recordExhaustion() {
+        exhaustionEvents.increment();
+    }
+
+    public void recordConnectionCreated(long creationNanos) {
+        connectionsCreated.increment();
+        creationTime.record(creationNanos);
+    }
+
+    public void recordCreationFailure() {
+        creationFailures.increment();
+    }
+
+    public void recordConnectionClosed() {
+        connectionsClosed.increment();
+    }
+
+    public void recordLeakSuspected() {
+        leaksSuspected.increment();
+    }
+
+    public void recordStatementCacheHit() {
+        statementHits.increment();
+    }
+
+    public void recordStatementCacheMiss() {
+        statementMisses.increment();
+    }
+
+    // acquireForRead() found no healthy replica and used the primary
+    public void recordReadFallback() {
+        readFallbacks.increment();
+    }
+
+    // Admission control turned an acquire away with PoolOverloadedException
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    // ── Reading ──────────────────────────────────────────────────────────────
+
+    public long getAcquireCount()         { return acquires.sum(); }
+    public long getReleaseCount()         { return releases.sum(); }
+    public long getTimeoutCount()         { return timeouts.sum(); }
+    public long getExhaustionCount()      { return exhaustionEvents.sum(); }
+    public long getConnectionsCreated()   { return connectionsCreated.sum(); }
+    public long getConnectionsClosed()    { return connectionsClosed.sum(); }
+    public long getCreationFailures()     { return creationFailures.sum(); }
+    public long getLeaksSuspected()       { return leaksSuspected.sum(); }
+    public long getStatementCacheHits()   { return statementHits.sum(); }
+    public long getStatementCacheMisses() { return statementMisses.sum(); }
+    public long getReadFallbackCount()    { return readFallbacks.sum(); }
+    public long getRejectionCount()       { return rejections.sum(); }
+
+    // Fraction of prepareStatement() calls served from a connection's cache
+    public double getStatementCacheHitRate() {
+        long hits = statementHits.sum();
+        long total = hits + statementMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public LatencyHistogram getAcquireWait()  { return acquireWait; }
+    public LatencyHistogram getHoldTime()     { return holdTime; }
+    public LatencyHistogram getCreationTime() { return creationTime; }
+}
@@ -0,0 +1,23 @@
+// Scenario: Load shedding at the connection pool — Banking System
+// Thrown straight away when admission control turns an acquire away, instead
+// of letting the caller wait out the acquire timeout. Callers can tell it
+// apart from a real timeout and shed the request upstream (HTTP 503, retry later).
+
+import java.sql.SQLTransientConnectionException;
+
+public class PoolOverloadedException extends SQLTransientConnectionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int concurrencyLimit;
+    private final int queuedAcquires;
+
+    public PoolOverloadedException(String message, int concurrencyLimit, int queuedAcquires) {
+        super(message);
+        this.concurrencyLimit = concurrencyLimit;
+        this.queuedAcquires   = queuedAcquires;
+    }
+
+    public int getConcurrencyLimit() { return concurrencyLimit; }
+    public int getQueuedAcquires()   { return queuedAcquires; }
+}
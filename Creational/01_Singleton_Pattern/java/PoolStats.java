@@ -0,0 +1,109 @@
+// Scenario: Point-in-time view of connection pool health
+// Immutable, so callers can log or compare snapshots freely.
+// Latencies are in microseconds; percentiles come from LatencyHistogram.
+
+public final class PoolStats {
+
+    private final String poolName;
+    private final int    totalConnections;
+    private final int    activeConnections;
+    private final int    idleConnections;
+    private final int    threadsAwaitingConnection;
+    private final long   acquireCount;
+    private final long   releaseCount;
+    private final long   timeoutCount;
+    private final long   exhaustionCount;
+    private final long   rejectionCount;
+    private final long   readFallbackCount;
+    private final long   connectionsCreated;
+    private final long   connectionsClosed;
+    private final long   creationFailures;
+    private final long   leaksSuspected;
+    private final double statementCacheHitRate;
+    private final long   acquireWaitP50Micros;
+    private final long   acquireWaitP99Micros;
+    private final long   acquireWaitMaxMicros;
+    private final long   holdTimeP50Micros;
+    private final long   holdTimeP99Micros;
+    private final long   holdTimeMaxMicros;
+    private final long   creationTimeP50Micros;
+    private final long   creationTimeP99Micros;
+
+    PoolStats(String poolName, int totalConnections, int activeConnections, int idleConnections,
+              int threadsAwaitingConnection, PoolMetrics metrics) {
+        this.poolName                  = poolName;
+        this.totalConnections          = totalConnections;
+        this.activeConnections         = activeConnections;
+        this.idleConnections           = idleConnections;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.acquireCount              = metrics.getAcquireCount();
+        this.releaseCount              = metrics.getReleaseCount();
+        this.timeoutCount              = metrics.getTimeoutCount();
+        this.exhaustionCount           = metrics.getExhaustionCount();
+        this.rejectionCount            = metrics.getRejectionCount();
+        this.readFallbackCount         = metrics.getReadFallbackCount();
+        this.connectionsCreated        = metrics.getConnectionsCreated();
+        this.connectionsClosed         = metrics.getConnectionsClosed();
+        this.creationFailures          = metrics.getCreationFailures();
+        this.leaksSuspected            = metrics.getLeaksSuspected();
+        this.statementCacheHitRate     = metrics.getStatementCacheHitRate();
+        this.acquireWaitP50Micros      = micros(metrics.getAcquireWait().getPercentileNanos(50));
+        this.acquireWaitP99Micros      = micros(metrics.getAcquireWait().getPercentileNanos(99));
+        this.acquireWaitMaxMicros      = micros(metrics.getAcquireWait().getMaxNanos());
+        this.holdTimeP50Micros         = micros(metrics.getHoldTime().getPercentileNanos(50));
+        this.holdTimeP99Micros         = micros(metrics.getHoldTime().getPercentileNanos(99));
+        this.holdTimeMaxMicros         = micros(metrics.getHoldTime().getMaxNanos());
+        this.creationTimeP50Micros     = micros(metrics.getCreationTime().getPercentileNanos(50));
+        this.creationTimeP99Micros     = micros(metrics.getCreationTime().getPercentileNanos(99));
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+
+    // Getters — also the attribute names of the JMX composite
+    public String getPoolName()                  { return poolName; }
+    public int    getTotalConnections()          { return totalConnections; }
+    public int    getActiveConnections()         { return activeConnections; }
+    public int    getIdleConnections()           { return idleConnections; }
+    public int    getThreadsAwaitingConnection() { return threadsAwaitingConnection; }
+    public long   getAcquireCount()              { return acquireCount; }
+    public long   getReleaseCount()              { return releaseCount; }
+    public long   getTimeoutCount()              { return timeoutCount; }
+    public long   getExhaustionCount()           { return exhaustionCount; }
+    public long   getRejectionCount()            { return rejectionCount; }
+    // Reads served by the primary because no replica was available
+    public long   getReadFallbackCount()         { return readFallbackCount; }
+    public long   getConnectionsCreated()        { return connectionsCreated; }
+    public long   getConnectionsClosed()         { return connectionsClosed; }
+    public long   getCreationFailures()          { return creationFailures; }
+    public long   getLeaksSuspected()            { return leaksSuspected; }
+    public double getStatementCacheHitRate()     { return statementCacheHitRate; }
+    public long   getAcquireWaitP50Micros()      { return acquireWaitP50Micros; }
+    public long   getAcquireWaitP99Micros()      { return acquireWaitP99Micros; }
+    public long   getAcquireWaitMaxMicros()      { return acquireWaitMaxMicros; }
+    public long   getHoldTimeP50Micros()         { return holdTimeP50Micros; }
+    public long   getHoldTimeP99Micros()         { return holdTimeP99Micros; }
+    public long   getHoldTimeMaxMicros()         { return holdTimeMaxMicros; }
+    public long   getCreationTimeP50Micros()     { return creationTimeP50Micros; }
+    public long   getCreationTimeP99Micros()     { return creationTimeP99Micros; }
+
+    @Override
+    public String toString() {
+        return "[" + poolName + "] total=" + totalConnections
+                + " active=" + activeConnections
+                + " idle=" + idleConnections
+                + " waiting=" + threadsAwaitingConnection
+                + " acquires=" + acquireCount
+                + " releases=" + releaseCount
+                + " timeouts=" + timeoutCount
+                + " exhaustion=" + exhaustionCount
+                + " rejected=" + rejectionCount
+                + " readFallbacks=" + readFallbackCount
+                + " leaks=" + leaksSuspected
+                + String.format(" stmtCacheHitRate=%.1f%%", statementCacheHitRate * 100)
+                + " acquireWait(p50/p99/max)=" + acquireWaitP50Micros + "/" + acquireWaitP99Micros + "/" + acquireWaitMaxMicros + "µs"
+                + " hold(p50/p99/max)=" + holdTimeP50Micros + "/" + holdTimeP99Micros + "/" + holdTimeMaxMicros + "µs"
+                + " create(p50/p99)=" + creationTimeP50Micros + "/" + creationTimeP99Micros + "µs";
+    }
+}
@@ -0,0 +1,324 @@
+// Scenario: What ConnectionPoolManager actually hands out
+// A dynamic proxy over the driver's Connection. Callers see a plain
+// java.sql.Connection; the pool gets a hook on the calls it cares about.
+
+/**
+ * Intercepted:
+ *   prepareStatement(String) → served from this connection's StatementCache
+ *   close()                  → returns the connection to its pool, so
+ *                              try-with-resources works; isClosed() is then true
+ *   setAutoCommit / setTransactionIsolation / setReadOnly / setCatalog
+ *                            → recorded as dirty when they differ from the
+ *                              driver's defaults; redundant sets are skipped
+ *   equals / hashCode        → identity of the proxy, not the driver object
+ * Everything else is forwarded to the physical connection unchanged.
+ *
+ * Every borrow gets a fresh proxy (a lease), as HikariCP does. Once that
+ * borrow is returned its proxy is dead for good: close() is a no-op and any
+ * other call throws — so a borrower that closes twice, or keeps using the
+ * connection after closing it, cannot release or touch the next borrower's
+ * session.
+ *
+ * On release the pool calls resetSessionState(), which rolls back a
+ * transaction left open and restores only the dirty properties — a borrower
+ * that changed nothing costs no extra round-trip.
+ *
+ * Each lease leads back to the connection's bag entry and the pool that owns
+ * it, so releaseConnection() finds its bookkeeping without a map lookup — and
+ * a replica connection released through the primary goes back to its replica.
+ */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class PooledConnection {
+
+    private final ConnectionPoolManager owner;
+    private final Connection            rawConnection;
+    private final StatementCache        statementCache; // null when statementCacheSize is 0
+    private ConnectionBag.Entry<PooledConnection> entry;
+
+    private static final int DIRTY_AUTO_COMMIT = 1;
+    private static final int DIRTY_ISOLATION   = 1 << 1;
+    private static final int DIRTY_READ_ONLY   = 1 << 2;
+    private static final int DIRTY_CATALOG     = 1 << 3;
+
+    // Session state as the driver opened it
+    private final boolean defaultAutoCommit;
+    private final int     defaultIsolation;
+    private final boolean defaultReadOnly;
+    private final String  defaultCatalog;
+
+    // Current session state — only the borrower (then the releasing thread) touches it;
+    // the bag's CAS hand-off orders one borrower's writes before the next one's reads
+    private boolean autoCommit;
+    private int     isolation;
+    private boolean readOnly;
+    private String  catalog;
+    private int     dirtyBits;
+    // Statements were created with autoCommit off and no commit/rollback followed
+    private boolean transactionOpen;
+    // The current borrow's proxy handler; null while idle. Cleared on release, so a
+    // second close()/releaseConnection() — or one through an old proxy — is a no-op
+    private final AtomicReference<Lease> lease = new AtomicReference<>();
+
+    /**
+     * Reads the session defaults once per physical connection. If that fails
+     * the raw connection is closed and the exception rethrown.
+     */
+    PooledConnection(ConnectionPoolManager owner, Connection rawConnection, int statementCacheSize,
+                     PoolMetrics metrics) throws SQLException {
+        this.owner          = owner;
+        this.rawConnection  = rawConnection;
+        try {
+            this.defaultAutoCommit = rawConnection.getAutoCommit();
+            this.defaultIsolation  = rawConnection.getTransactionIsolation();
+            this.defaultReadOnly   = rawConnection.isReadOnly();
+            this.defaultCatalog    = rawConnection.getCatalog();
+        } catch (SQLException e) {
+            try {
+                rawConnection.close();
+            } catch (SQLException ignored) {}
+            throw e;
+        }
+        this.autoCommit     = defaultAutoCommit;
+        this.isolation      = defaultIsolation;
+        this.readOnly       = defaultReadOnly;
+        this.catalog        = defaultCatalog;
+        this.statementCache = statementCacheSize > 0
+                ? new StatementCache(rawConnection, statementCacheSize, metrics)
+                : null;
+    }
+
+    /**
+     * The PooledConnection behind a proxy handed out by the pool, or null if the
+     * given Connection did not come from a pool.
+     */
+    static PooledConnection of(Connection conn) {
+        if (Proxy.isProxyClass(conn.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(conn);
+            if (handler instanceof Lease) {
+                return ((Lease) handler).pooled();
+            }
+        }
+        return null;
+    }
+
+    void attach(ConnectionBag.Entry<PooledConnection> entry) {
+        this.entry = entry;
+    }
+
+    ConnectionBag.Entry<PooledConnection> getEntry() {
+        return entry;
+    }
+
+    ConnectionPoolManager getOwner() {
+        return owner;
+    }
+
+    // The current borrow's proxy — only meaningful between onBorrow() and release
+    Connection getProxy() {
+        return lease.get().proxy;
+    }
+
+    Connection getRawConnection() {
+        return rawConnection;
+    }
+
+    void onBorrow() {
+        lease.set(new Lease());
+    }
+
+    /**
+     * @return false if conn is not the current borrow's proxy (already returned,
+     *         or a proxy from an earlier borrow) — ignore this release
+     */
+    boolean markReturned(Connection conn) {
+        Lease current = lease.get();
+        return current != null && current.proxy == conn && lease.compareAndSet(current, null);
+    }
+
+    /**
+     * Undo what the last borrower changed: roll back a transaction it left
+     * open, then restore only the dirty properties. No driver calls at all
+     * when nothing is dirty.
+     *
+     * @return false if the reset failed — the pool closes the connection instead
+     */
+    boolean resetSessionState() {
+        if (dirtyBits == 0 && !transactionOpen) {
+            return true;
+        }
+        try {
+            if (transactionOpen) {
+                rawConnection.rollback();
+                transactionOpen = false;
+            }
+            if ((dirtyBits & DIRTY_AUTO_COMMIT) != 0) {
+                rawConnection.setAutoCommit(defaultAutoCommit);
+                autoCommit = defaultAutoCommit;
+            }
+            if ((dirtyBits & DIRTY_ISOLATION) != 0) {
+                rawConnection.setTransactionIsolation(defaultIsolation);
+                isolation = defaultIsolation;
+            }
+            if ((dirtyBits & DIRTY_READ_ONLY) != 0) {
+                rawConnection.setReadOnly(defaultReadOnly);
+                readOnly = defaultReadOnly;
+            }
+            if ((dirtyBits & DIRTY_CATALOG) != 0) {
+                rawConnection.setCatalog(defaultCatalog);
+                catalog = defaultCatalog;
+            }
+            dirtyBits = 0;
+            return true;
+        } catch (SQLException e) {
+            EventLog.warn("ConnectionPoolManager", "Could not reset connection state, retiring it: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void markDirty(int bit, boolean dirty) {
+        dirtyBits = dirty ? dirtyBits | bit : dirtyBits & ~bit;
+    }
+
+    // Retire for good — cached statements first, then the socket
+    void closePhysically() {
+        if (statementCache != null) {
+            statementCache.closeAll();
+        }
+        try {
+            rawConnection.close();
+        } catch (SQLException ignored) {}
+    }
+
+    // One borrow's view of the connection
+    private final class Lease implements InvocationHandler {
+        final Connection proxy = (Connection) Proxy.newProxyInstance(
+                PooledConnection.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+
+        PooledConnection pooled() {
+            return PooledConnection.this;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                case "toString":
+                    return "Pooled[" + rawConnection + "]";
+                default:
+                    break;
+            }
+            if (lease.get() != this) {
+                // This borrow is over — the physical connection may be someone else's now
+                switch (method.getName()) {
+                    case "close":
+                        return null;
+                    case "isClosed":
+                        return true;
+                    default:
+                        throw new SQLException("Connection is closed — it was returned to the pool");
+                }
+            }
+            return dispatch(proxy, method, args);
+        }
+    }
+
+    private Object dispatch(Connection proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement":
+                if (!autoCommit) {
+                    transactionOpen = true;
+                }
+                if (statementCache != null && args.length == 1) {
+                    return statementCache.prepare((String) args[0]);
+                }
+                break;
+            case "createStatement":
+            case "prepareCall":
+                if (!autoCommit) {
+                    transactionOpen = true;
+                }
+                break;
+            case "setAutoCommit": {
+                boolean value = (Boolean) args[0];
+                if (value != autoCommit) {
+                    rawConnection.setAutoCommit(value);
+                    autoCommit = value;
+                    markDirty(DIRTY_AUTO_COMMIT, value != defaultAutoCommit);
+                }
+                if (value) {
+                    transactionOpen = false; // switching autoCommit on commits
+                }
+                return null;
+            }
+            case "setTransactionIsolation": {
+                int value = (Integer) args[0];
+                if (value != isolation) {
+                    rawConnection.setTransactionIsolation(value);
+                    isolation = value;
+                    markDirty(DIRTY_ISOLATION, value != defaultIsolation);
+                }
+                return null;
+            }
+            case "setReadOnly": {
+                boolean value = (Boolean) args[0];
+                if (value != readOnly) {
+                    rawConnection.setReadOnly(value);
+                    readOnly = value;
+                    markDirty(DIRTY_READ_ONLY, value != defaultReadOnly);
+                }
+                return null;
+            }
+            case "setCatalog": {
+                String value = (String) args[0];
+                if (!Objects.equals(value, catalog)) {
+                    rawConnection.setCatalog(value);
+                    catalog = value;
+                    markDirty(DIRTY_CATALOG, !Objects.equals(value, defaultCatalog));
+                }
+                return null;
+            }
+            case "getAutoCommit":
+                return autoCommit;
+            case "getTransactionIsolation":
+                return isolation;
+            case "isReadOnly":
+                return readOnly;
+            case "getCatalog":
+                return catalog;
+            case "commit":
+                rawConnection.commit();
+                transactionOpen = false;
+                return null;
+            case "rollback":
+                if (args == null) {
+                    rawConnection.rollback();
+                    transactionOpen = false;
+                    return null;
+                }
+                break; // rollback(Savepoint) — the transaction stays open
+            case "close":
+                owner.releaseConnection(proxy); // back to the pool, not closed
+                return null;
+            default:
+                break;
+        }
+
+        try {
+            return method.invoke(rawConnection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+// Scenario: Per-connection PreparedStatement cache
+// TransactionService prepares the same two UPDATEs on every transfer; caching
+// them per connection turns each repeat into a map lookup instead of a re-parse.
+
+/**
+ * Bounded LRU keyed by SQL text. A pooled connection is only ever used by one
+ * borrower at a time, so the cache needs no locking.
+ *
+ * Callers get a thin proxy over the driver's statement: close() on it is a
+ * logical close (parameters and pending batch cleared, statement stays cached), so code written
+ * with try-with-resources and code that never closes both behave. The physical
+ * statement is closed when it is evicted or when the connection is retired —
+ * that is what stops server-side cursors from leaking.
+ *
+ * A cached statement is handed to one caller at a time. Preparing SQL whose
+ * statement is still open — a nested call inside a TransactionScope, say —
+ * gets a plain uncached statement instead, so neither caller's parameters or
+ * batch are overwritten or cleared by the other. An open statement is never
+ * evicted; the cache may run over maxSize until enough are closed.
+ */
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+final class StatementCache {
+
+    private final Connection  rawConnection;
+    private final int         maxSize;
+    private final PoolMetrics metrics;
+
+    // accessOrder=true → iteration order is least-recently-used first
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection rawConnection, int maxSize, PoolMetrics metrics) {
+        this.rawConnection = rawConnection;
+        this.maxSize       = maxSize;
+        this.metrics       = metrics;
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && cached.inUse) {
+            // Still open in an outer caller — sharing it would clobber their parameters
+            metrics.recordStatementCacheMiss();
+            return rawConnection.prepareStatement(sql);
+        }
+        if (cached != null && !cached.physical.isClosed()) {
+            metrics.recordStatementCacheHit();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        metrics.recordStatementCacheMiss();
+        cached = new CachedStatement(rawConnection.prepareStatement(sql));
+        cached.inUse = true;
+        statements.put(sql, cached);
+        evictIdleOverflow();
+        return cached.proxy;
+    }
+
+    // Closes least-recently-used idle statements until the cache fits maxSize
+    private void evictIdleOverflow() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement cached = it.next();
+            if (!cached.inUse) {
+                cached.closePhysically();
+                it.remove();
+            }
+        }
+    }
+
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closePhysically();
+        }
+        statements.clear();
+    }
+
+    // ── Cached statement ─────────────────────────────────────────────────────
+
+    private final class CachedStatement {
+        final PreparedStatement physical;
+        final PreparedStatement proxy;
+        boolean inUse; // handed out and not yet logically closed
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    (self, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (!inUse) {
+                                    return null; // already closed
+                                }
+                                // Logical close — stays cached. Drop anything the caller left
+                                // behind, or the next borrower's executeBatch() would run it.
+                                try {
+                                    physical.clearParameters();
+                                    physical.clearBatch();
+                                } finally {
+                                    inUse = false;
+                                }
+                                evictIdleOverflow(); // it may have been held over the limit
+                                return null;
+                            case "hashCode":
+                                return System.identityHashCode(self);
+                            case "equals":
+                                return self == args[0];
+                            case "toString":
+                                return "Cached[" + physical + "]";
+                            default:
+                                try {
+                                    return method.invoke(physical, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                        }
+                    });
+        }
+
+        void closePhysically() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {}
+        }
+    }
+}
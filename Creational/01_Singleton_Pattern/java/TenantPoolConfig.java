@@ -0,0 +1,89 @@
+// Scenario: Multi-tenant pool settings — Banking System
+// Immutable settings object read by TenantPoolManager.
+// Built once, before the tenant manager is first touched.
+
+import java.time.Duration;
+import java.util.function.Function;
+
+public final class TenantPoolConfig {
+
+    private final Function<String, PoolConfig> poolConfigForTenant;
+    private final int                          maxTotalConnections;
+    private final int                          maxResidentTenants;
+    private final Duration                     tenantIdleTimeout;
+    private final Duration                     evictionInterval;
+
+    // Private — only Builder can instantiate
+    private TenantPoolConfig(Builder builder) {
+        if (builder.poolConfigForTenant == null)
+            throw new IllegalStateException("poolConfigForTenant is required");
+        if (builder.maxTotalConnections < 1)
+            throw new IllegalStateException("maxTotalConnections must be >= 1");
+        if (builder.maxResidentTenants < 1)
+            throw new IllegalStateException("maxResidentTenants must be >= 1");
+
+        this.poolConfigForTenant = builder.poolConfigForTenant;
+        this.maxTotalConnections = builder.maxTotalConnections;
+        this.maxResidentTenants  = builder.maxResidentTenants;
+        this.tenantIdleTimeout   = builder.tenantIdleTimeout;
+        this.evictionInterval    = builder.evictionInterval;
+    }
+
+    // Getters
+    public Function<String, PoolConfig> getPoolConfigForTenant() { return poolConfigForTenant; }
+    public int                          getMaxTotalConnections() { return maxTotalConnections; }
+    public int                          getMaxResidentTenants()  { return maxResidentTenants; }
+    public Duration                     getTenantIdleTimeout()   { return tenantIdleTimeout; }
+    public Duration                     getEvictionInterval()    { return evictionInterval; }
+
+    // Entry point to the builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private Function<String, PoolConfig> poolConfigForTenant;
+        private int                          maxTotalConnections = 200;
+        private int                          maxResidentTenants  = 500;
+        private Duration                     tenantIdleTimeout   = Duration.ofMinutes(5);
+        private Duration                     evictionInterval    = Duration.ofSeconds(30);
+
+        private Builder() {}
+
+        // Pool settings for one tenant — typically a URL per tenant database, and a
+        // small minIdle so thousands of mostly-idle tenants stay cheap
+        public Builder poolConfigForTenant(Function<String, PoolConfig> poolConfigForTenant) {
+            this.poolConfigForTenant = poolConfigForTenant;
+            return this;
+        }
+
+        // Hard ceiling on open connections summed over every tenant pool
+        public Builder maxTotalConnections(int maxTotalConnections) {
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        // Pools kept open at once; opening one more evicts the least recently used idle pool
+        public Builder maxResidentTenants(int maxResidentTenants) {
+            this.maxResidentTenants = maxResidentTenants;
+            return this;
+        }
+
+        // A tenant pool with nothing borrowed for this long is closed
+        public Builder tenantIdleTimeout(Duration tenantIdleTimeout) {
+            this.tenantIdleTimeout = tenantIdleTimeout;
+            return this;
+        }
+
+        public Builder evictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+            return this;
+        }
+
+        // Terminal method
+        public TenantPoolConfig build() {
+            return new TenantPoolConfig(this);
+        }
+    }
+}
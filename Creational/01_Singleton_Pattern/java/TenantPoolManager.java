@@ -0,0 +1,283 @@
+// Scenario: One connection pool per bank tenant — Banking System
+// Every tenant has its own database. Pools are opened on a tenant's first
+// request, share one global connection budget, and are closed again when
+// the tenant goes quiet — so thousands of tenants cost only what is in use.
+
+/**
+ * Same singleton mechanics as ConnectionPoolManager (configure() first, then
+ * getInstance()), but it owns a map of tenantId → pool instead of one pool.
+ *
+ *   - Lazy: a tenant's ConnectionPoolManager is created on its first acquire,
+ *     under a per-tenant lock, so opening one tenant never blocks another.
+ *   - Global cap: every tenant pool draws each open connection from one shared
+ *     Semaphore of maxTotalConnections permits. When none are left, the least
+ *     recently used idle tenant is evicted to free its connections.
+ *   - Bounded residency: at most maxResidentTenants pools are open; opening
+ *     one more evicts the least recently used idle pool. Each resident pool
+ *     also owns three daemon threads (housekeeper, connection adder and
+ *     async-acquire timer), so this bounds threads as well.
+ *   - Idle eviction: a background sweep closes pools with nothing borrowed for
+ *     tenantIdleTimeout.
+ *
+ * A pool is only evicted while none of its connections is borrowed. Borrowers
+ * take a lease with a CAS before touching the pool, and eviction CASes the
+ * lease count from 0 to CLOSED. Exactly one of the two wins, and a borrower
+ * that loses simply opens a fresh pool.
+ */
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class TenantPoolManager {
+    // ── Singleton mechanics ──────────────────────────────────────────────────
+
+    private static volatile TenantPoolManager instance = null;
+    // Settings used when the singleton is first created — see configure()
+    private static TenantPoolConfig pendingConfig = null;
+    private static final ReentrantLock INIT_LOCK = new ReentrantLock();
+
+    private TenantPoolManager(TenantPoolConfig config) {
+        this.config            = config;
+        this.connectionPermits = new Semaphore(config.getMaxTotalConnections());
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getEvictionInterval().toMillis();
+        evictor.scheduleWithFixedDelay(this::evictIdleTenants, interval, interval, TimeUnit.MILLISECONDS);
+        System.out.println("[TenantPoolManager] Ready — up to " + config.getMaxTotalConnections()
+                + " connections across " + config.getMaxResidentTenants() + " resident tenant pools.");
+    }
+
+    /**
+     * Supply tenant settings. Must be called before the first getInstance().
+     */
+    public static void configure(TenantPoolConfig config) {
+        INIT_LOCK.lock();
+        try {
+            if (instance != null) {
+                throw new IllegalStateException("Tenant pools already initialized — call configure() before getInstance()");
+            }
+            pendingConfig = config;
+        } finally {
+            INIT_LOCK.unlock();
+        }
+    }
+
+    // Double-checked locking, as in ConnectionPoolManager.getInstance()
+    public static TenantPoolManager getInstance() {
+        if (instance == null) {
+            INIT_LOCK.lock();
+            try {
+                if (instance == null) {
+                    if (pendingConfig == null) {
+                        throw new IllegalStateException("Call TenantPoolManager.configure() before getInstance()");
+                    }
+                    instance = new TenantPoolManager(pendingConfig);
+                }
+            } finally {
+                INIT_LOCK.unlock();
+            }
+        }
+        return instance;
+    }
+
+    // ── Tenant pools ─────────────────────────────────────────────────────────
+
+    // Far below zero, so a late decrement on an evicted pool cannot bring it back to a valid count
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    private final TenantPoolConfig config;
+    private final Semaphore        connectionPermits;
+    private final ConcurrentHashMap<String, TenantPool> tenants = new ConcurrentHashMap<>();
+    private final AtomicInteger    residentPools = new AtomicInteger(0);
+    private final ScheduledExecutorService evictor;
+
+    private static final class TenantPool {
+        final String tenantId;
+        // Borrowed connections, or CLOSED once evicted — see the class comment
+        final AtomicInteger leases = new AtomicInteger(0);
+        final ReentrantLock initLock = new ReentrantLock();
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile ConnectionPoolManager pool;
+
+        TenantPool(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        // A borrowed connection came back, however it was returned
+        void onReturned() {
+            lastUsed = System.currentTimeMillis();
+            leases.decrementAndGet();
+        }
+
+        boolean tryLease() {
+            while (true) {
+                int current = leases.get();
+                if (current < 0) {
+                    return false; // CLOSED, possibly nudged by a stray decrement
+                }
+                if (leases.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Borrow a connection to tenantId's database, opening its pool if needed.
+     * Release it with releaseConnection(tenantId, conn).
+     */
+    public Connection acquireConnection(String tenantId) throws InterruptedException, SQLException {
+        while (true) {
+            TenantPool tenant = tenants.computeIfAbsent(tenantId, TenantPool::new);
+            if (!tenant.tryLease()) {
+                tenants.remove(tenantId, tenant); // evicted under us — start a fresh one
+                continue;
+            }
+
+            try {
+                if (connectionPermits.availablePermits() == 0) {
+                    evictLeastRecentlyUsed(tenantId); // make room before we would wait
+                }
+                Connection conn = poolFor(tenant).acquireConnection();
+                tenant.lastUsed = System.currentTimeMillis();
+                return conn;
+            } catch (SQLException | InterruptedException | RuntimeException e) {
+                tenant.leases.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Return a connection borrowed with acquireConnection(tenantId). Always call in a finally block.
+     * conn.close() works as well — the tenant's pool counts the return either way.
+     */
+    public void releaseConnection(String tenantId, Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        TenantPool tenant = tenants.get(tenantId);
+        if (tenant == null || tenant.pool == null) {
+            throw new IllegalArgumentException("No open pool for tenant " + tenantId);
+        }
+        tenant.pool.releaseConnection(conn); // drops the lease through onReturned()
+    }
+
+    // Caller holds a lease, so the pool cannot be evicted while we open it
+    private ConnectionPoolManager poolFor(TenantPool tenant) throws SQLException {
+        ConnectionPoolManager pool = tenant.pool;
+        if (pool != null) {
+            return pool;
+        }
+
+        tenant.initLock.lock();
+        try {
+            if (tenant.pool == null) {
+                if (residentPools.get() >= config.getMaxResidentTenants()) {
+                    evictLeastRecentlyUsed(tenant.tenantId);
+                }
+                // Renamed per tenant — a shared name would share one JMX bean
+                PoolConfig poolConfig = config.getPoolConfigForTenant().apply(tenant.tenantId)
+                        .forTenant(tenant.tenantId);
+                try {
+                    // The pool reports every return — conn.close() as well as releaseConnection()
+                    tenant.pool = ConnectionPoolManager.createPool(poolConfig, connectionPermits, tenant::onReturned);
+                } catch (RuntimeException e) {
+                    throw new SQLException("Could not open pool for tenant " + tenant.tenantId, e);
+                }
+                residentPools.incrementAndGet();
+                EventLog.info("TenantPoolManager", "Opened pool for tenant '{}' ({} resident).",
+                        tenant.tenantId, residentPools.get());
+            }
+            return tenant.pool;
+        } finally {
+            tenant.initLock.unlock();
+        }
+    }
+
+    // ── Eviction ─────────────────────────────────────────────────────────────
+
+    private boolean evict(TenantPool tenant, String reason) {
+        if (!tenant.leases.compareAndSet(0, CLOSED)) {
+            return false; // someone is using it
+        }
+        tenants.remove(tenant.tenantId, tenant);
+        ConnectionPoolManager pool = tenant.pool;
+        if (pool != null) {
+            pool.shutdown(); // closes its idle connections, returning their permits
+            residentPools.decrementAndGet();
+            EventLog.info("TenantPoolManager", "Closed pool for tenant '{}' ({}).", tenant.tenantId, reason);
+        }
+        return true;
+    }
+
+    // Linear scan — runs only when a cap is hit, never on the normal acquire path
+    private void evictLeastRecentlyUsed(String exceptTenantId) {
+        while (true) {
+            TenantPool oldest = null;
+            for (TenantPool tenant : tenants.values()) {
+                if (tenant.pool != null && tenant.leases.get() == 0 && !tenant.tenantId.equals(exceptTenantId)
+                        && (oldest == null || tenant.lastUsed < oldest.lastUsed)) {
+                    oldest = tenant;
+                }
+            }
+            if (oldest == null || evict(oldest, "least recently used")) {
+                return; // nothing idle to evict, or done
+            }
+            // Lost a race with a borrower — pick again
+        }
+    }
+
+    private void evictIdleTenants() {
+        long cutoff = System.currentTimeMillis() - config.getTenantIdleTimeout().toMillis();
+        for (TenantPool tenant : tenants.values()) {
+            if (tenant.lastUsed < cutoff) {
+                evict(tenant, "idle");
+            }
+        }
+    }
+
+    /**
+     * Close every tenant pool and stop the eviction sweep.
+     */
+    public void shutdown() {
+        evictor.shutdownNow();
+        for (TenantPool tenant : tenants.values()) {
+            ConnectionPoolManager pool = tenant.pool;
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        tenants.clear();
+        residentPools.set(0);
+    }
+
+    // ── Telemetry ────────────────────────────────────────────────────────────
+
+    public int getResidentTenantCount() {
+        return residentPools.get();
+    }
+
+    public int getOpenConnectionCount() {
+        return config.getMaxTotalConnections() - connectionPermits.availablePermits();
+    }
+
+    /**
+     * Stats of one tenant's pool, or null if that tenant has no open pool.
+     */
+    public PoolStats snapshot(String tenantId) {
+        TenantPool tenant = tenants.get(tenantId);
+        ConnectionPoolManager pool = tenant == null ? null : tenant.pool;
+        return pool == null ? null : pool.snapshot();
+    }
+}
@@ -0,0 +1,153 @@
+// Scenario: One connection per unit of work, however deep the call chain — Banking System
+// A service that opens its own transaction and then calls
+// TransactionService.transferFunds() would otherwise hold two pooled
+// connections at once. With every thread in that position, the pool runs dry
+// while each thread waits for a second connection it can never get.
+
+/**
+ * Usage:
+ *
+ *   try (TransactionScope tx = TransactionScope.begin()) {
+ *       Connection conn = tx.getConnection();
+ *       ... own statements ...
+ *       transactionService.transferFunds(from, to, amount); // joins this transaction
+ *       tx.commit();
+ *   }
+ *
+ * The outermost begin() borrows a connection, turns auto-commit off and binds
+ * it to the current thread. A nested begin() on the same thread joins it:
+ * same connection, no second borrow.
+ *
+ * Only the outermost scope ends the transaction: its commit() commits, and
+ * its close() rolls back if commit() was never reached, then returns the
+ * connection to the pool (which resets its session state). A nested commit()
+ * only records that the nested work is done. A nested scope that closes
+ * without commit() marks the whole transaction rollback-only — the outer
+ * commit() then throws instead of committing half of the work.
+ *
+ * The binding is a ThreadLocal. ScopedValue would fit better, but it is not
+ * final before JDK 25. Scopes must be closed on the thread that opened them,
+ * innermost first — try-with-resources guarantees both.
+ */
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public final class TransactionScope implements AutoCloseable {
+
+    // Per-thread state of the active transaction
+    private static final class Binding {
+        final ConnectionPoolManager pool;
+        final Connection            connection;
+        int                         depth = 1;
+        boolean                     rollbackOnly;
+
+        Binding(ConnectionPoolManager pool, Connection connection) {
+            this.pool       = pool;
+            this.connection = connection;
+        }
+    }
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private final Binding binding;
+    private final boolean outermost;
+    private boolean       committed;
+    private boolean       closed;
+
+    private TransactionScope(Binding binding, boolean outermost) {
+        this.binding   = binding;
+        this.outermost = outermost;
+    }
+
+    /**
+     * Join the current thread's transaction, or start one on a connection from
+     * the ConnectionPoolManager singleton.
+     */
+    public static TransactionScope begin() throws InterruptedException, SQLException {
+        Binding binding = CURRENT.get();
+        if (binding != null) {
+            binding.depth++;
+            return new TransactionScope(binding, false);
+        }
+
+        ConnectionPoolManager pool = ConnectionPoolManager.getInstance();
+        Connection connection = pool.acquireConnection();
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            pool.releaseConnection(connection);
+            throw e;
+        }
+        binding = new Binding(pool, connection);
+        CURRENT.set(binding);
+        return new TransactionScope(binding, true);
+    }
+
+    // True while the current thread is inside a scope
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public Connection getConnection() {
+        if (closed) {
+            throw new IllegalStateException("Transaction scope already closed");
+        }
+        return binding.connection;
+    }
+
+    public boolean isOutermost() {
+        return outermost;
+    }
+
+    // Undo everything when the outermost scope closes, whatever the other scopes do
+    public void setRollbackOnly() {
+        binding.rollbackOnly = true;
+    }
+
+    /**
+     * This scope's work is complete. The outermost scope commits right here;
+     * a nested one leaves that to its outermost scope.
+     *
+     * @throws SQLException if a nested scope failed — the transaction is rolled back on close()
+     */
+    public void commit() throws SQLException {
+        if (closed) {
+            throw new IllegalStateException("Transaction scope already closed");
+        }
+        if (binding.rollbackOnly) {
+            throw new SQLException("Transaction was marked rollback-only by a nested scope — not committed");
+        }
+        if (outermost) {
+            binding.connection.commit(); // if this throws, close() rolls back
+        }
+        committed = true;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() != binding) {
+            throw new IllegalStateException("Transaction scope closed on a thread that does not own it");
+        }
+
+        if (!committed) {
+            binding.rollbackOnly = true;
+        }
+        if (--binding.depth > 0) {
+            return; // nested — the outermost scope ends the transaction
+        }
+
+        CURRENT.remove();
+        try {
+            if (!committed) {
+                binding.connection.rollback();
+            }
+        } finally {
+            binding.pool.releaseConnection(binding.connection);
+        }
+    }
+}
@@ -1,46 +1,517 @@
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class TransactionService {
-    public void transferFunds(String fromAccount, String toAccount, double amount) {
+    // balance is held in minor units; the currency check stops a USD transfer touching a EUR account
+    static final String DEBIT_SQL   = "UPDATE accounts SET balance = balance - ? WHERE account_id = ? AND currency = ?";
+    static final String CREDIT_SQL  = "UPDATE accounts SET balance = balance + ? WHERE account_id = ? AND currency = ?";
+    static final String BALANCE_SQL = "SELECT balance, currency FROM accounts WHERE account_id = ?";
+
+    // Journaled mode records each entry's sequence in the transaction that applies it
+    static final String MARK_APPLIED_SQL      = "INSERT INTO journal_applied (sequence) VALUES (?)";
+    static final String APPLIED_SEQUENCES_SQL = "SELECT sequence FROM journal_applied WHERE sequence BETWEEN ? AND ?";
+
+    // Transfers per DB transaction in transferFundsBatch()
+    private static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+
+    // Records per journal segment file in journaled mode (128 bytes each)
+    private static final int DEFAULT_JOURNAL_SEGMENT_RECORDS = 8_192;
+    private static final long JOURNAL_DRAIN_TIMEOUT_MILLIS   = 10_000;
+
+    // How long applyJournaled() waits on isValid() before treating the connection as lost
+    private static final int CONNECTION_CHECK_TIMEOUT_SECONDS = 2;
+
+    // Both null → classic mode: every transferFunds call is its own transaction
+    private final GroupCommitter  groupCommitter;
+    private final TransferJournal journal;
+
+    public TransactionService() {
+        this.groupCommitter = null;
+        this.journal        = null;
+    }
+
+    /**
+     * Group-commit mode: concurrent transferFunds calls arriving within
+     * groupCommitWindow (up to groupCommitMaxBatch of them) share one DB
+     * transaction and one commit. Callers still see their own success/failure.
+     */
+    public TransactionService(Duration groupCommitWindow, int groupCommitMaxBatch) {
+        this.groupCommitter = new GroupCommitter(groupCommitWindow, groupCommitMaxBatch);
+        this.journal        = null;
+    }
+
+    /**
+     * Journaled mode: transferFunds returns once the transfer is forced to a
+     * memory-mapped journal in journalDirectory, and a background flusher
+     * applies journaled transfers to the DB in batches. Transfers a previous
+     * run left unapplied are replayed first.
+     *
+     * Needs a journal_applied (sequence BIGINT PRIMARY KEY) table: each
+     * transfer's journal sequence is inserted in the transaction that applies
+     * it, so a replay skips transfers that already committed.
+     */
+    public TransactionService(Path journalDirectory) throws IOException {
+        this.groupCommitter = null;
+        this.journal = TransferJournal.open(journalDirectory, DEFAULT_JOURNAL_SEGMENT_RECORDS,
+                DEFAULT_BATCH_CHUNK_SIZE, this::applyJournaled);
+    }
+
+    /**
+     * Inside a caller's TransactionScope the transfer joins that transaction —
+     * same connection, committed or rolled back with the caller's work — in
+     * every mode. Otherwise it runs in this service's own mode.
+     *
+     * @throws TransferOutcomeUnknownException if the commit itself failed —
+     *         every other RuntimeException means nothing was applied
+     */
+    public void transferFunds(String fromAccount, String toAccount, Money amount) {
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("Transfer amount must be positive, got " + amount);
+        }
+        boolean joining = TransactionScope.isActive();
+        if (groupCommitter != null && !joining) {
+            transferFundsGrouped(fromAccount, toAccount, amount);
+            return;
+        }
+        if (journal != null && !joining) {
+            transferFundsJournaled(fromAccount, toAccount, amount);
+            return;
+        }
+
+        // Outermost scope: borrows, commits (or rolls back) and releases
+        try (TransactionScope tx = TransactionScope.begin()) {
+            Connection conn = tx.getConnection();
+
+            // Pooled connections cache these per connection — close() here is a
+            // logical close, and repeat transfers skip the re-parse entirely
+            try (PreparedStatement debit = conn.prepareStatement(DEBIT_SQL);
+                 PreparedStatement credit = conn.prepareStatement(CREDIT_SQL)) {
+
+                // No matching row (unknown account, or a currency mismatch) must fail
+                // the transfer — otherwise the other leg commits on its own
+                bindLeg(debit, fromAccount, amount);
+                if (debit.executeUpdate() == 0) {
+                    throw new SQLException("Source account not found: " + fromAccount);
+                }
+
+                bindLeg(credit, toAccount, amount);
+                if (credit.executeUpdate() == 0) {
+                    throw new SQLException("Destination account not found: " + toAccount);
+                }
+            }
+
+            try {
+                tx.commit();
+            } catch (SQLException e) {
+                if (tx.isOutermost()) {
+                    // The server may have committed before the error reached us
+                    throw new TransferOutcomeUnknownException(new Transfer(fromAccount, toAccount, amount), e);
+                }
+                throw e;
+            }
+
+            if (tx.isOutermost()) {
+                System.out.printf("✅ Transfer of %s from %s to %s committed.%n",
+                        amount, fromAccount, toAccount);
+            } else {
+                System.out.printf("✅ Transfer of %s from %s to %s applied — commits with the enclosing transaction.%n",
+                        amount, fromAccount, toAccount);
+            }
+        } catch (TransferOutcomeUnknownException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Transaction failed — rolled back.", e);
+        }
+    }
+
+    /**
+     * Current balance for display. Served from a read replica when one is
+     * configured, so it may trail the latest transfers by the replication lag.
+     * Inside a TransactionScope it reads through the scope's connection
+     * instead, and so sees the scope's own uncommitted transfers.
+     */
+    public Money getBalance(String account) {
+        if (TransactionScope.isActive()) {
+            try (TransactionScope tx = TransactionScope.begin()) {
+                Money balance = readBalance(tx.getConnection(), account);
+                tx.commit();
+                return balance;
+            } catch (Exception e) {
+                throw new RuntimeException("Balance lookup failed for " + account, e);
+            }
+        }
+
         ConnectionPoolManager poolManager = ConnectionPoolManager.getInstance();
         Connection conn = null;
 
         try {
-            conn = poolManager.acquireConnection();
+            conn = poolManager.acquireForRead();
+            return readBalance(conn, account);
+        } catch (Exception e) {
+            throw new RuntimeException("Balance lookup failed for " + account, e);
+        } finally {
+            poolManager.releaseConnection(conn);
+        }
+    }
 
-            // Begin transaction
+    private static Money readBalance(Connection conn, String account) throws SQLException {
+        try (PreparedStatement select = conn.prepareStatement(BALANCE_SQL)) {
+            select.setString(1, account);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Account not found: " + account);
+                }
+                return Money.of(rs.getLong(1), rs.getString(2));
+            }
+        }
+    }
+
+    private void transferFundsGrouped(String fromAccount, String toAccount, Money amount) {
+        try {
+            groupCommitter.transfer(new Transfer(fromAccount, toAccount, amount));
+            System.out.printf("✅ Transfer of %s from %s to %s committed.%n",
+                    amount, fromAccount, toAccount);
+        } catch (InterruptedException e) {
+            // Withdrawn before its group touched the DB — never applied
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Transaction interrupted — not applied.", e);
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction failed — rolled back.", e);
+        }
+    }
+
+    private void transferFundsJournaled(String fromAccount, String toAccount, Money amount) {
+        try {
+            journal.append(new Transfer(fromAccount, toAccount, amount));
+            System.out.printf("📝 Transfer of %s from %s to %s journaled.%n",
+                    amount, fromAccount, toAccount);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Transaction failed — not journaled.", e);
+        }
+    }
+
+    /**
+     * Journal flusher → DB. Throwing (no connection) makes the journal retry the
+     * batch. Only a committed transfer or one the DB itself rejected is final;
+     * a failure caused by the connection — or a commit with an unknown outcome —
+     * goes back to the journal, since dropping it would lose the transfer.
+     *
+     * A retry cannot apply a transfer twice: its sequence is inserted into
+     * journal_applied in the same transaction as its two legs, and sequences
+     * already recorded there are skipped as settled before anything runs.
+     *
+     * Runs only on the journal's flusher thread, which never has a
+     * TransactionScope — callers inside a scope join it in transferFunds() and
+     * never reach the journal.
+     */
+    private List<TransferJournal.Entry> applyJournaled(List<TransferJournal.Entry> batch)
+            throws SQLException, InterruptedException {
+        ConnectionPoolManager poolManager = ConnectionPoolManager.getInstance();
+        Connection conn = null;
+
+        try {
+            conn = poolManager.acquireConnection();
             conn.setAutoCommit(false);
 
-            PreparedStatement debit = conn.prepareStatement(
-                "UPDATE accounts SET balance = balance - ? WHERE account_id = ?"
-            );
+            Set<Long> alreadyApplied = appliedSequences(conn, batch);
+            List<TransferJournal.Entry> pending = new ArrayList<>(batch.size());
+            for (TransferJournal.Entry entry : batch) {
+                if (!alreadyApplied.contains(entry.getSequence())) {
+                    pending.add(entry);
+                }
+            }
+            if (pending.size() < batch.size()) {
+                System.out.println("[TransactionService] Skipped " + (batch.size() - pending.size())
+                        + " journaled transfer(s) an earlier attempt already committed");
+            }
+            if (pending.isEmpty()) {
+                rollbackQuietly(conn); // ends the read-only lookup
+                return List.of();
+            }
 
-            debit.setDouble(1, amount);
-            debit.setString(2, fromAccount);
-            debit.executeUpdate();
+            List<Transfer> transfers = new ArrayList<>(pending.size());
+            long[] sequences = new long[pending.size()];
+            for (int i = 0; i < pending.size(); i++) {
+                transfers.add(pending.get(i).getTransfer());
+                sequences[i] = pending.get(i).getSequence();
+            }
 
-            PreparedStatement credit = conn.prepareStatement(
-                "UPDATE accounts SET balance = balance + ? WHERE account_id = ?"
-            );
-            credit.setDouble(1, amount);
-            credit.setString(2, toAccount);
-            credit.executeUpdate();
+            List<TransferResult> results = new ArrayList<>(pending.size());
+            settleChunk(conn, transfers, sequences, results);
+            boolean connectionLost = !conn.isValid(CONNECTION_CHECK_TIMEOUT_SECONDS);
 
-            conn.commit();
+            List<TransferJournal.Entry> unsettled = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                TransferResult result = results.get(i);
+                if (result.isSuccess()) {
+                    continue;
+                }
+                if (result.isOutcomeUnknown() || connectionLost || isConnectionFailure(result.getFailure())) {
+                    unsettled.add(pending.get(i));
+                } else {
+                    System.out.println("❌ Journaled transfer rejected by the DB: " + result);
+                }
+            }
+            return unsettled;
+        } finally {
+            poolManager.releaseConnection(conn);
+        }
+    }
 
-            System.out.printf("✅ Transfer of %.2f from %s to %s committed.%n",
-                    amount, fromAccount, toAccount);
+    // One range query per batch; sequences are unique, so extra rows in the range are harmless
+    private static Set<Long> appliedSequences(Connection conn, List<TransferJournal.Entry> batch) throws SQLException {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (TransferJournal.Entry entry : batch) {
+            min = Math.min(min, entry.getSequence());
+            max = Math.max(max, entry.getSequence());
+        }
+
+        Set<Long> applied = new HashSet<>();
+        try (PreparedStatement select = conn.prepareStatement(APPLIED_SEQUENCES_SQL)) {
+            select.setLong(1, min);
+            select.setLong(2, max);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    applied.add(rs.getLong(1));
+                }
+            }
+        }
+        return applied;
+    }
+
+    // SQLState class 08 is "connection exception" in the SQL standard
+    private static boolean isConnectionFailure(Exception e) {
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String state = e instanceof SQLException ? ((SQLException) e).getSQLState() : null;
+        return state != null && state.startsWith("08");
+    }
+
+    /**
+     * Stop the group-commit flusher or drain and close the journal, if this
+     * service runs in one of those modes.
+     */
+    public void shutdown() {
+        if (groupCommitter != null) {
+            groupCommitter.shutdown();
+        }
+        if (journal != null) {
+            try {
+                journal.close(JOURNAL_DRAIN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public List<TransferResult> transferFundsBatch(List<Transfer> transfers) {
+        return transferFundsBatch(transfers, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    /**
+     * Settle many transfers with one acquire, two batched round-trips and one
+     * commit per chunk — instead of all three per transfer.
+     *
+     * If a chunk fails (driver error, or an UPDATE that matched no account) the
+     * chunk is rolled back and replayed one transfer per transaction on the same
+     * connection, so only the bad items fail. If the commit itself throws, the
+     * chunk is not replayed — its items come back with an unknown outcome.
+     * Results come back in input order.
+     *
+     * Each chunk commits on its own, so a batch cannot join a caller's
+     * TransactionScope — it would commit the caller's work part way through.
+     *
+     * @throws IllegalStateException if called inside a TransactionScope
+     */
+    public List<TransferResult> transferFundsBatch(List<Transfer> transfers, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be >= 1");
+        if (TransactionScope.isActive()) {
+            // Also: a second connection on this thread while the scope holds one
+            throw new IllegalStateException("transferFundsBatch commits per chunk — call it outside a TransactionScope");
+        }
+
+        ConnectionPoolManager poolManager = ConnectionPoolManager.getInstance();
+        List<TransferResult> results = new ArrayList<>(transfers.size());
+
+        for (int from = 0; from < transfers.size(); from += chunkSize) {
+            List<Transfer> chunk = transfers.subList(from, Math.min(from + chunkSize, transfers.size()));
+            Connection conn = null;
+
+            try {
+                // One connection per chunk — a huge settlement run never
+                // monopolizes a pooled connection for its whole duration
+                conn = poolManager.acquireConnection();
+                conn.setAutoCommit(false);
+                settleChunk(conn, chunk, null, results);
+            } catch (Exception e) {
+                rollbackQuietly(conn);
+                if (conn != null) {
+                    replayIndividually(conn, chunk, null, results);
+                } else {
+                    // Could not even get a connection — the whole chunk fails
+                    for (Transfer transfer : chunk) {
+                        results.add(TransferResult.failed(transfer, e));
+                    }
+                }
+            } finally {
+                poolManager.releaseConnection(conn);
+            }
+        }
+
+        long committed = results.stream().filter(TransferResult::isSuccess).count();
+        System.out.printf("✅ Batch settled: %d committed, %d failed.%n", committed, results.size() - committed);
+        return results;
+    }
+
+    // Batched fast path; if the statements fail, roll back and fall back to per-item replay.
+    // journalSequences is null outside journaled mode; otherwise each transfer's
+    // sequence is recorded in journal_applied in the same transaction.
+    private void settleChunk(Connection conn, List<Transfer> chunk, long[] journalSequences,
+                             List<TransferResult> results) {
+        boolean matched;
+        try {
+            matched = executeChunk(conn, chunk, journalSequences);
         } catch (Exception e) {
+            matched = false;
+        }
+        if (!matched) {
+            rollbackQuietly(conn);
+            replayIndividually(conn, chunk, journalSequences, results);
+            return;
+        }
+
+        try {
+            conn.commit();
+        } catch (SQLException e) {
+            // The server may have committed before the error reached us — a
+            // replay could apply the whole chunk twice
+            for (Transfer transfer : chunk) {
+                results.add(TransferResult.outcomeUnknown(transfer, e));
+            }
+            return;
+        }
+        for (Transfer transfer : chunk) {
+            results.add(TransferResult.committed(transfer));
+        }
+    }
+
+    // true if every debit and credit in the chunk touched a row
+    private boolean executeChunk(Connection conn, List<Transfer> chunk, long[] journalSequences) throws SQLException {
+        try (PreparedStatement debit = conn.prepareStatement(DEBIT_SQL);
+             PreparedStatement credit = conn.prepareStatement(CREDIT_SQL);
+             PreparedStatement mark = journalSequences != null ? conn.prepareStatement(MARK_APPLIED_SQL) : null) {
+
+            for (int i = 0; i < chunk.size(); i++) {
+                Transfer transfer = chunk.get(i);
+                bindLeg(debit, transfer.getFromAccount(), transfer.getAmount());
+                debit.addBatch();
+
+                bindLeg(credit, transfer.getToAccount(), transfer.getAmount());
+                credit.addBatch();
+
+                if (mark != null) {
+                    mark.setLong(1, journalSequences[i]);
+                    mark.addBatch();
+                }
+            }
+
             try {
-                if (conn != null)
-                    conn.rollback();
-            } catch (Exception ignored) {}
-            throw new RuntimeException("Transaction failed — rolled back.", e);
-        } finally {
-            // Always return to pool
-            poolManager.releaseConnection(conn); 
+                return allRowsMatched(debit.executeBatch()) && allRowsMatched(credit.executeBatch())
+                        && (mark == null || allRowsMatched(mark.executeBatch()));
+            } catch (BatchUpdateException e) {
+                return false; // some item failed — isolate it in the replay
+            } finally {
+                // A short-circuit or failure above leaves credits queued on a
+                // cached statement that outlives this chunk
+                debit.clearBatch();
+                credit.clearBatch();
+                if (mark != null) {
+                    mark.clearBatch();
+                }
+            }
         }
     }
+
+    // Slow path — each transfer in its own transaction, so failures stay per-item
+    private void replayIndividually(Connection conn, List<Transfer> chunk, long[] journalSequences,
+                                    List<TransferResult> results) {
+        for (int i = 0; i < chunk.size(); i++) {
+            Transfer transfer = chunk.get(i);
+            try (PreparedStatement debit = conn.prepareStatement(DEBIT_SQL);
+                 PreparedStatement credit = conn.prepareStatement(CREDIT_SQL)) {
+
+                bindLeg(debit, transfer.getFromAccount(), transfer.getAmount());
+                if (debit.executeUpdate() == 0) {
+                    throw new SQLException("Source account not found: " + transfer.getFromAccount());
+                }
+
+                bindLeg(credit, transfer.getToAccount(), transfer.getAmount());
+                if (credit.executeUpdate() == 0) {
+                    throw new SQLException("Destination account not found: " + transfer.getToAccount());
+                }
+
+                if (journalSequences != null) {
+                    markApplied(conn, journalSequences[i]);
+                }
+
+                try {
+                    conn.commit();
+                } catch (SQLException e) {
+                    results.add(TransferResult.outcomeUnknown(transfer, e));
+                    continue;
+                }
+                results.add(TransferResult.committed(transfer));
+            } catch (Exception e) {
+                rollbackQuietly(conn);
+                results.add(TransferResult.failed(transfer, e));
+            }
+        }
+    }
+
+    private static void markApplied(Connection conn, long journalSequence) throws SQLException {
+        try (PreparedStatement mark = conn.prepareStatement(MARK_APPLIED_SQL)) {
+            mark.setLong(1, journalSequence);
+            mark.executeUpdate();
+        }
+    }
+
+    // Minor units go in as a primitive long — nothing is boxed or rounded on the way
+    static void bindLeg(PreparedStatement statement, String account, Money amount) throws SQLException {
+        statement.setLong(1, amount.getMinorUnits());
+        statement.setString(2, account);
+        statement.setString(3, amount.getCurrency());
+    }
+
+    private static boolean allRowsMatched(int[] updateCounts) {
+        for (int count : updateCounts) {
+            // SUCCESS_NO_INFO: the driver ran it but did not report a row count
+            if (count == 0 || count == Statement.EXECUTE_FAILED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            if (conn != null)
+                conn.rollback();
+        } catch (Exception ignored) {}
+    }
 }
@@ -0,0 +1,27 @@
+// Scenario: One leg-pair of a funds transfer — Banking System
+// Immutable value passed to TransactionService.transferFundsBatch().
+
+public final class Transfer {
+    private final String fromAccount;
+    private final String toAccount;
+    private final Money  amount;
+
+    public Transfer(String fromAccount, String toAccount, Money amount) {
+        if (!amount.isPositive()) {
+            // A negative amount would run the transfer backwards, past every funds check
+            throw new IllegalArgumentException("Transfer amount must be positive, got " + amount);
+        }
+        this.fromAccount = fromAccount;
+        this.toAccount   = toAccount;
+        this.amount      = amount;
+    }
+
+    public String getFromAccount() { return fromAccount; }
+    public String getToAccount()   { return toAccount; }
+    public Money  getAmount()      { return amount; }
+
+    @Override
+    public String toString() {
+        return amount + " " + fromAccount + " → " + toAccount;
+    }
+}
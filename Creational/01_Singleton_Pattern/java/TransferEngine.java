@@ -0,0 +1,339 @@
+// Scenario: Account-sharded, single-writer transfer engine — Banking System
+// Hot merchant accounts serialize on row locks when every transfer runs its
+// own two UPDATEs. Here each account belongs to exactly one lane thread, which
+// applies transfers in memory and writes netted deltas to the DB in batches.
+
+/**
+ * Accounts are hashed to N lanes. Each lane owns:
+ *   - an MpscRingBuffer of commands (any thread may submit, one thread consumes)
+ *   - an in-memory balance view of its accounts, loaded lazily from the Ledger
+ *   - a map of unflushed net deltas per account
+ * Because a lane is the only writer of its accounts, it needs no locks; a hot
+ * account costs one map update per transfer instead of a contended row lock.
+ *
+ * Transfers inside one lane are applied in a single step. Cross-lane transfers
+ * follow a two-phase protocol, both phases being commands on lane queues:
+ *   1. PREPARE on the source lane — check funds, move the amount into a
+ *      reservation (balance view drops, no delta recorded yet)
+ *   2. CREDIT on the destination lane — apply the credit and its delta
+ *   3a. CONFIRM on the source lane — turn the reservation into a debit delta
+ *   3b. ABORT on the source lane — release the reservation (credit failed)
+ * The caller's future completes once the outcome is decided.
+ *
+ * Phase messages travel on a separate unbounded queue per lane that is drained
+ * before new submissions. A lane must never block handing a message to another
+ * lane — with bounded queues two full lanes would wait on each other forever —
+ * and finishing in-flight transfers first keeps reservations short-lived.
+ * Back-pressure applies only to callers, through the bounded submit ring.
+ *
+ * A flush that fails keeps its deltas and retries them with the next one. A
+ * flush whose commit outcome is unknown (FlushOutcomeUnknownException) does
+ * not — re-applying a delta that did commit would move the money twice — so
+ * its deltas are set aside for reconciliation (getUnreconciledDeltas()).
+ *
+ * Durability note: each lane flushes its own deltas, so the debit and the
+ * credit of one cross-lane transfer may land in different DB transactions.
+ * Balances converge once both lanes flush; pair this engine with the
+ * transfer journal when a crash between the two flushes must not lose money.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public final class TransferEngine {
+
+    /**
+     * Where balances come from and where netted deltas go.
+     */
+    public interface Ledger {
+        // Balance in minor units; an account in another currency must not be found
+        long loadBalance(String account, String currency) throws Exception;
+
+        // Must apply all deltas atomically, or throw and apply none — or throw
+        // FlushOutcomeUnknownException if the commit itself failed
+        void applyDeltas(Map<String, Long> deltas, String currency) throws Exception;
+    }
+
+    private final Lane[] lanes;
+    private final String currency;                        // one engine per currency
+    private final AtomicLong inFlight = new AtomicLong(); // submitted, outcome not yet decided
+    private final ConcurrentLinkedQueue<Map<String, Long>> unreconciled = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    public TransferEngine(Ledger ledger, String currency, int laneCount, int flushBatchSize,
+                          long flushIntervalMillis) {
+        if (laneCount < 1) throw new IllegalArgumentException("laneCount must be >= 1");
+        this.currency = currency;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, ledger, flushBatchSize, TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+            lanes[i].start();
+        }
+    }
+
+    /**
+     * Submit a transfer. The future completes when the engine has accepted it
+     * (funds checked and applied in memory) — the DB write follows in the next
+     * flush of each affected lane.
+     */
+    public CompletableFuture<Void> submit(String fromAccount, String toAccount, Money amount) {
+        if (!amount.getCurrency().equals(currency)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Engine settles " + currency + " only, got " + amount.getCurrency()));
+        }
+        if (!amount.isPositive()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Transfer amount must be positive, got " + amount));
+        }
+        inFlight.incrementAndGet(); // before the check, so shutdown() cannot miss it
+        if (!running) {
+            inFlight.decrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("Transfer engine is shut down"));
+        }
+        Command command = new Command(new Transfer(fromAccount, toAccount, amount));
+        Lane source = laneFor(fromAccount);
+        command.type = source == laneFor(toAccount) ? CommandType.LOCAL : CommandType.PREPARE;
+        source.queue.offer(command);
+        return command.result;
+    }
+
+    /**
+     * Blocking form of submit(), with the same exceptions as TransactionService.
+     */
+    public void transfer(String fromAccount, String toAccount, Money amount) {
+        try {
+            submit(fromAccount, toAccount, amount).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Transfer interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Transfer rejected.", e.getCause());
+        }
+    }
+
+    /**
+     * Stop accepting transfers, finish those in flight, flush every lane and
+     * stop the lane threads. Lanes keep running until no transfer is in flight,
+     * since a lane that is idle now may still receive a CONFIRM or ABORT.
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.stopRequested = true;
+            LockSupport.unpark(lane.thread);
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join();
+        }
+    }
+
+    /**
+     * Deltas from flushes whose commit outcome is unknown, one map per flush.
+     * Each must be checked against the DB and applied by hand if it is missing.
+     */
+    public List<Map<String, Long>> getUnreconciledDeltas() {
+        return new ArrayList<>(unreconciled);
+    }
+
+    private Lane laneFor(String account) {
+        // Spread the hash so accounts like "ACC-1".."ACC-9" do not cluster
+        int h = account.hashCode();
+        h ^= (h >>> 16);
+        return lanes[Math.floorMod(h, lanes.length)];
+    }
+
+    // ── Commands ─────────────────────────────────────────────────────────────
+
+    private enum CommandType { LOCAL, PREPARE, CREDIT, CONFIRM, ABORT }
+
+    private static final class Command {
+        final Transfer                transfer;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        // Re-targeted as the command moves between lanes; only the owning
+        // lane touches it, and the ring buffer hand-off publishes the write
+        CommandType type;
+        Exception   failure;
+
+        Command(Transfer transfer) {
+            this.transfer = transfer;
+        }
+    }
+
+    // ── Lane ─────────────────────────────────────────────────────────────────
+
+    private final class Lane implements Runnable {
+        final MpscRingBuffer<Command>        queue      = new MpscRingBuffer<>(1 << 14);
+        final ConcurrentLinkedQueue<Command> phaseQueue = new ConcurrentLinkedQueue<>();
+        final Thread                         thread;
+        final Ledger                         ledger;
+        final int                            flushBatchSize;
+        final long                           flushIntervalNanos;
+
+        // Owned by the lane thread only — no synchronization needed
+        final Map<String, Long> balances     = new HashMap<>();
+        final Map<String, Long> pendingDelta = new HashMap<>();
+        long lastFlush = System.nanoTime();
+
+        volatile boolean stopRequested = false;
+
+        Lane(int index, Ledger ledger, int flushBatchSize, long flushIntervalNanos) {
+            this.ledger             = ledger;
+            this.flushBatchSize     = flushBatchSize;
+            this.flushIntervalNanos = flushIntervalNanos;
+            this.thread = new Thread(this, "transfer-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            int idleSpins = 0;
+            while (!stopRequested || inFlight.get() > 0) {
+                Command command = phaseQueue.poll();
+                if (command == null) {
+                    command = queue.poll();
+                }
+                if (command != null) {
+                    idleSpins = 0;
+                    handle(command);
+                    if (pendingDelta.size() >= flushBatchSize) {
+                        flush();
+                    }
+                    continue;
+                }
+
+                if (!pendingDelta.isEmpty() && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                    flush();
+                } else if (++idleSpins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(50_000);
+                }
+            }
+            flush();
+        }
+
+        private void handle(Command command) {
+            Transfer transfer = command.transfer;
+            long amount = transfer.getAmount().getMinorUnits();
+            try {
+                switch (command.type) {
+                    case LOCAL:
+                        // Load both balances first — an unknown destination must
+                        // throw before the debit has touched anything
+                        balanceOf(transfer.getFromAccount());
+                        balanceOf(transfer.getToAccount());
+                        debit(transfer.getFromAccount(), amount);
+                        credit(transfer.getToAccount(), amount);
+                        complete(command, null);
+                        break;
+
+                    case PREPARE:
+                        // Phase 1: reserve — balance view drops, delta waits for CONFIRM
+                        reserve(transfer.getFromAccount(), amount);
+                        command.type = CommandType.CREDIT;
+                        laneFor(transfer.getToAccount()).phaseQueue.offer(command);
+                        break;
+
+                    case CREDIT:
+                        // Phase 2: apply the credit, then tell the source lane the outcome
+                        try {
+                            credit(transfer.getToAccount(), amount);
+                            command.type = CommandType.CONFIRM;
+                        } catch (Exception e) {
+                            command.failure = e;
+                            command.type = CommandType.ABORT;
+                        }
+                        laneFor(transfer.getFromAccount()).phaseQueue.offer(command);
+                        break;
+
+                    case CONFIRM:
+                        addDelta(transfer.getFromAccount(), -amount);
+                        complete(command, null);
+                        break;
+
+                    case ABORT:
+                        balances.merge(transfer.getFromAccount(), amount, Long::sum);
+                        complete(command, command.failure);
+                        break;
+                }
+            } catch (Exception e) {
+                // LOCAL or PREPARE rejected before anything changed
+                complete(command, e);
+            }
+        }
+
+        private void complete(Command command, Exception failure) {
+            inFlight.decrementAndGet();
+            if (failure == null) {
+                command.result.complete(null);
+            } else {
+                command.result.completeExceptionally(failure);
+            }
+        }
+
+        private void debit(String account, long amount) throws Exception {
+            reserve(account, amount);
+            addDelta(account, -amount);
+        }
+
+        private void reserve(String account, long amount) throws Exception {
+            long balance = balanceOf(account);
+            if (balance < amount) {
+                throw new IllegalStateException("Insufficient funds in " + account
+                        + ": balance " + balance + ", requested " + amount + " (minor units)");
+            }
+            balances.put(account, balance - amount);
+        }
+
+        private void credit(String account, long amount) throws Exception {
+            balances.put(account, balanceOf(account) + amount);
+            addDelta(account, amount);
+        }
+
+        private long balanceOf(String account) throws Exception {
+            Long balance = balances.get(account);
+            if (balance == null) {
+                balance = ledger.loadBalance(account, currency); // first touch only
+                balances.put(account, balance);
+            }
+            return balance;
+        }
+
+        private void addDelta(String account, long delta) {
+            pendingDelta.merge(account, delta, Long::sum);
+        }
+
+        // Hundreds of transfers on a hot account collapse into one UPDATE here
+        private void flush() {
+            lastFlush = System.nanoTime();
+            if (pendingDelta.isEmpty()) {
+                return;
+            }
+            try {
+                ledger.applyDeltas(pendingDelta, currency);
+                pendingDelta.clear();
+            } catch (FlushOutcomeUnknownException e) {
+                // May have committed — never merge these back into the next flush
+                unreconciled.add(e.getDeltas());
+                pendingDelta.clear();
+                System.out.println("[TransferEngine] " + thread.getName() + " flush outcome unknown, "
+                        + e.getDeltas().size() + " delta(s) set aside for reconciliation: " + e.getMessage());
+            } catch (Exception e) {
+                // Keep the deltas; they merge with new ones and retry next flush
+                System.out.println("[TransferEngine] " + thread.getName() + " flush failed, will retry: " + e.getMessage());
+            }
+        }
+    }
+}
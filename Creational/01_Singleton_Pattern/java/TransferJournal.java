@@ -0,0 +1,480 @@
+// Scenario: Write-ahead journal for transfers — Banking System
+// A transfer is acknowledged once it is durable in a local memory-mapped
+// file; a background flusher applies it to the DB in batches afterwards.
+
+/**
+ * The journal is a sequence of fixed-size segment files (journal-00000001.seg,
+ * ...), each memory-mapped and holding recordsPerSegment fixed 128-byte records:
+ *
+ *   offset  0  byte    state      0 = empty, 1 = pending, 2 = applied
+ *   offset  4  int     crc32      over bytes 8..127
+ *   offset  8  long    sequence
+ *   offset 16  long    amount in minor units
+ *   offset 24  3 bytes ISO 4217 currency code
+ *   offset 28  byte    from length, then up to 48 bytes of UTF-8 account id
+ *   offset 77  byte    to length,   then up to 48 bytes of UTF-8 account id
+ *
+ * append() writes the payload, then the state byte, then force()s just that
+ * record — one page flush rather than a DB round-trip. When a segment fills,
+ * the next one is created; a segment whose records are all applied is deleted.
+ *
+ * On open, existing segments are scanned in order. Every pending record with a
+ * valid CRC is queued for the flusher ahead of new appends. An empty slot or a
+ * CRC mismatch (a torn write at crash time) is skipped, not treated as the end
+ * of the segment: records are forced individually, so one appender's record
+ * can reach disk while an earlier slot's did not.
+ *
+ * Delivery to the DB is at-least-once: a crash after the DB commit but before
+ * the applied marks reach disk replays those transfers on the next start, and
+ * a batch whose commit outcome is unknown is handed over again. Every entry
+ * carries a sequence number that is never reused in this directory, so an
+ * applier that records it in the same DB transaction as the transfer can skip
+ * whatever an earlier attempt already committed. Sequences are reserved one
+ * segment's worth at a time in journal.seq, forced before the segment takes
+ * its first record, so a restart resumes past every sequence ever issued —
+ * even once every segment file has been applied and deleted.
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+public final class TransferJournal {
+
+    /**
+     * Applies a batch of journaled transfers to the database and returns the
+     * entries that did not reach a final outcome (the connection was lost, or
+     * the commit outcome is unknown) — they stay pending and are retried.
+     * Committed transfers and transfers the DB rejected are final. Throwing
+     * means none are final and the whole batch is retried.
+     *
+     * A retried entry may already be in the DB, so the applier must
+     * deduplicate by Entry.getSequence().
+     */
+    @FunctionalInterface
+    public interface Applier {
+        List<Entry> apply(List<Entry> batch) throws Exception;
+    }
+
+    /**
+     * A journaled transfer and its sequence number.
+     */
+    public static final class Entry {
+        private final long     sequence;
+        private final Transfer transfer;
+
+        Entry(long sequence, Transfer transfer) {
+            this.sequence = sequence;
+            this.transfer = transfer;
+        }
+
+        public long     getSequence() { return sequence; }
+        public Transfer getTransfer() { return transfer; }
+    }
+
+    static final int RECORD_SIZE = 128;
+
+    private static final byte STATE_EMPTY   = 0;
+    private static final byte STATE_PENDING = 1;
+    private static final byte STATE_APPLIED = 2;
+
+    private static final int MAX_ACCOUNT_BYTES = 48;
+    private static final int OFFSET_CRC        = 4;
+    private static final int OFFSET_SEQUENCE   = 8;
+    private static final int OFFSET_AMOUNT     = 16;
+    private static final int OFFSET_CURRENCY   = 24;
+    private static final int OFFSET_FROM       = 28;
+    private static final int OFFSET_TO         = OFFSET_FROM + 1 + MAX_ACCOUNT_BYTES;
+
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5_000;
+
+    private static final String SEQUENCE_FILE = "journal.seq";
+
+    private final Path    directory;
+    private final int     recordsPerSegment;
+    private final int     flushBatchSize;
+    private final Applier applier;
+
+    // Append side — guarded by appendLock
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Segment     activeSegment;
+    private int         nextSlot;
+    private long        nextSequence;
+    private FileChannel sequenceChannel; // holds the reserved sequence limit
+
+    private final LinkedBlockingQueue<Record> unapplied = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean closed = false;
+
+    private TransferJournal(Path directory, int recordsPerSegment, int flushBatchSize, Applier applier) {
+        this.directory         = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.flushBatchSize    = flushBatchSize;
+        this.applier           = applier;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Open (or create) the journal in directory, queue any transfers left
+     * unapplied by a previous run, and start the background flusher.
+     */
+    public static TransferJournal open(Path directory, int recordsPerSegment, int flushBatchSize,
+                                       Applier applier) throws IOException {
+        if (recordsPerSegment < 1) throw new IllegalArgumentException("recordsPerSegment must be >= 1");
+        if (flushBatchSize < 1) throw new IllegalArgumentException("flushBatchSize must be >= 1");
+
+        Files.createDirectories(directory);
+        TransferJournal journal = new TransferJournal(directory, recordsPerSegment, flushBatchSize, applier);
+        journal.sequenceChannel = FileChannel.open(directory.resolve(SEQUENCE_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int lastSegmentId = journal.recover();
+        journal.activeSegment = journal.createSegment(lastSegmentId + 1);
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * Durably record a transfer. When this returns the transfer survives a
+     * crash; it reaches the DB on the flusher's next batch.
+     */
+    public void append(Transfer transfer) {
+        byte[] from = accountBytes(transfer.getFromAccount());
+        byte[] to   = accountBytes(transfer.getToAccount());
+
+        Segment segment;
+        int slot;
+        long sequence;
+        appendLock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Transfer journal is closed");
+            if (nextSlot == recordsPerSegment) {
+                rotate();
+            }
+            segment  = activeSegment;
+            slot     = nextSlot++;
+            sequence = nextSequence++;
+            segment.pending.incrementAndGet();
+            segment.write(slot, sequence, transfer.getAmount(), from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate journal segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        // Flush just this record's page — concurrent appenders force in parallel
+        segment.buffer.force(slot * RECORD_SIZE, RECORD_SIZE);
+        unapplied.offer(new Record(segment, slot, new Entry(sequence, transfer)));
+    }
+
+    /**
+     * Transfers journaled but not yet applied to the DB.
+     */
+    public int getUnappliedCount() {
+        return unapplied.size();
+    }
+
+    /**
+     * Stop accepting appends and give the flusher a chance to drain. Anything
+     * it cannot apply stays on disk and is replayed by the next open().
+     */
+    public void close(long drainTimeoutMillis) throws InterruptedException {
+        appendLock.lock();
+        try {
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        flusher.join(drainTimeoutMillis);
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+            flusher.join();
+        }
+        try {
+            sequenceChannel.close();
+        } catch (IOException e) {
+            System.out.println("[TransferJournal] Could not close " + SEQUENCE_FILE + ": " + e.getMessage());
+        }
+        System.out.println("[TransferJournal] Closed with " + unapplied.size() + " transfer(s) left for replay.");
+    }
+
+    // ── Recovery ─────────────────────────────────────────────────────────────
+
+    // Returns the highest segment id found, or 0 for an empty directory
+    private int recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.seg")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null); // zero-padded ids sort in creation order
+
+        // Never below what an earlier run reserved, even if its segments are gone
+        nextSequence = readSequenceLimit();
+
+        int lastSegmentId = 0;
+        int recovered = 0;
+        for (Path file : files) {
+            Segment segment = Segment.map(file, recordsPerSegment);
+            lastSegmentId = Math.max(lastSegmentId, segment.id);
+            segment.sealed = true;
+
+            // Appenders force their own records in parallel, so a later slot can be
+            // durable while an earlier one was torn — scan the whole segment and
+            // skip holes rather than stopping at the first one
+            for (int slot = 0; slot < recordsPerSegment; slot++) {
+                byte state = segment.buffer.get(slot * RECORD_SIZE);
+                if (state == STATE_EMPTY || !segment.crcMatches(slot)) {
+                    continue; // never written, or torn — its append() never returned
+                }
+                nextSequence = Math.max(nextSequence, segment.sequenceAt(slot) + 1);
+                if (state == STATE_PENDING) {
+                    segment.pending.incrementAndGet();
+                    unapplied.offer(new Record(segment, slot, new Entry(segment.sequenceAt(slot), segment.read(slot))));
+                    recovered++;
+                }
+            }
+
+            if (segment.pending.get() == 0) {
+                segment.delete();
+            }
+        }
+
+        if (recovered > 0) {
+            System.out.println("[TransferJournal] Recovered " + recovered + " unapplied transfer(s) from "
+                    + files.size() + " segment(s); replaying before new transfers.");
+        }
+        return lastSegmentId;
+    }
+
+    // ── Segments ─────────────────────────────────────────────────────────────
+
+    private Segment createSegment(int id) throws IOException {
+        Path file = directory.resolve(String.format("journal-%08d.seg", id));
+        reserveSequences();
+        nextSlot = 0;
+        return Segment.map(file, recordsPerSegment);
+    }
+
+    // A segment takes at most recordsPerSegment records, so one reservation
+    // covers it; forced first, so no issued sequence is above the stored limit
+    private void reserveSequences() throws IOException {
+        ByteBuffer limit = ByteBuffer.allocate(Long.BYTES).putLong(0, nextSequence + recordsPerSegment);
+        sequenceChannel.write(limit, 0);
+        sequenceChannel.force(false);
+    }
+
+    private long readSequenceLimit() throws IOException {
+        ByteBuffer limit = ByteBuffer.allocate(Long.BYTES);
+        return sequenceChannel.read(limit, 0) == Long.BYTES ? limit.getLong(0) : 0;
+    }
+
+    private void rotate() throws IOException {
+        Segment full = activeSegment;
+        activeSegment = createSegment(full.id + 1);
+        full.sealed = true;
+        if (full.pending.get() == 0) {
+            full.delete(); // flusher already caught up with it
+        }
+    }
+
+    private static byte[] accountBytes(String account) {
+        byte[] bytes = account.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ACCOUNT_BYTES) {
+            throw new IllegalArgumentException("Account id longer than " + MAX_ACCOUNT_BYTES + " bytes: " + account);
+        }
+        return bytes;
+    }
+
+    private static final class Record {
+        final Segment segment;
+        final int     slot;
+        final Entry   entry;
+
+        Record(Segment segment, int slot, Entry entry) {
+            this.segment = segment;
+            this.slot    = slot;
+            this.entry   = entry;
+        }
+    }
+
+    private static final class Segment {
+        final int              id;
+        final Path             file;
+        final MappedByteBuffer buffer;
+        final AtomicInteger    pending = new AtomicInteger(); // written, not yet applied
+        volatile boolean       sealed  = false;               // no more appends will land here
+
+        private Segment(int id, Path file, MappedByteBuffer buffer) {
+            this.id     = id;
+            this.file   = file;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path file, int records) throws IOException {
+            String name = file.getFileName().toString();
+            int id = Integer.parseInt(name.substring("journal-".length(), name.length() - ".seg".length()));
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(id, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE));
+            }
+        }
+
+        void write(int slot, long sequence, Money amount, byte[] from, byte[] to) {
+            int base = slot * RECORD_SIZE;
+            buffer.putLong(base + OFFSET_SEQUENCE, sequence);
+            buffer.putLong(base + OFFSET_AMOUNT, amount.getMinorUnits());
+            String currency = amount.getCurrency();
+            for (int i = 0; i < 3; i++) {
+                buffer.put(base + OFFSET_CURRENCY + i, (byte) currency.charAt(i));
+            }
+            putAccount(base + OFFSET_FROM, from);
+            putAccount(base + OFFSET_TO, to);
+            buffer.putInt(base + OFFSET_CRC, crc(slot));
+            buffer.put(base, STATE_PENDING); // last — the record is only valid once this lands
+        }
+
+        Transfer read(int slot) {
+            int base = slot * RECORD_SIZE;
+            byte[] currency = new byte[3];
+            buffer.get(base + OFFSET_CURRENCY, currency);
+            return new Transfer(getAccount(base + OFFSET_FROM), getAccount(base + OFFSET_TO),
+                    Money.of(buffer.getLong(base + OFFSET_AMOUNT), new String(currency, StandardCharsets.US_ASCII)));
+        }
+
+        long sequenceAt(int slot) {
+            return buffer.getLong(slot * RECORD_SIZE + OFFSET_SEQUENCE);
+        }
+
+        boolean crcMatches(int slot) {
+            return buffer.getInt(slot * RECORD_SIZE + OFFSET_CRC) == crc(slot);
+        }
+
+        void markApplied(int slot) {
+            buffer.put(slot * RECORD_SIZE, STATE_APPLIED);
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.out.println("[TransferJournal] Could not delete " + file + ": " + e.getMessage());
+            }
+        }
+
+        private int crc(int slot) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(slot * RECORD_SIZE + OFFSET_SEQUENCE, RECORD_SIZE - OFFSET_SEQUENCE));
+            return (int) crc.getValue();
+        }
+
+        private void putAccount(int offset, byte[] bytes) {
+            buffer.put(offset, (byte) bytes.length);
+            buffer.put(offset + 1, bytes);
+        }
+
+        private String getAccount(int offset) {
+            byte[] bytes = new byte[buffer.get(offset)];
+            buffer.get(offset + 1, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    // ── Flusher ──────────────────────────────────────────────────────────────
+
+    private void flushLoop() {
+        List<Record> batch = new ArrayList<>(flushBatchSize);
+        List<Entry> entries = new ArrayList<>(flushBatchSize);
+        long backoffMillis = 100;
+
+        try {
+            while (!closed || !unapplied.isEmpty()) {
+                if (batch.isEmpty()) {
+                    Record first = unapplied.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    unapplied.drainTo(batch, flushBatchSize - 1);
+                }
+
+                entries.clear();
+                for (Record record : batch) {
+                    entries.add(record.entry);
+                }
+
+                List<Entry> unsettled;
+                try {
+                    unsettled = applier.apply(entries);
+                } catch (Exception e) {
+                    // Keep the batch and retry it — the journal holds it safely meanwhile
+                    System.out.println("[TransferJournal] Applying " + batch.size()
+                            + " transfer(s) failed, retrying in " + backoffMillis + " ms: " + e.getMessage());
+                    if (closed) break;
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+                    continue;
+                }
+
+                if (unsettled.isEmpty()) {
+                    backoffMillis = 100;
+                    markApplied(batch);
+                    batch.clear();
+                    continue;
+                }
+
+                // Mark what is final, keep the rest as the next attempt's batch
+                Set<Entry> retry = Collections.newSetFromMap(new IdentityHashMap<>());
+                retry.addAll(unsettled);
+                List<Record> settled = new ArrayList<>(batch.size());
+                batch.removeIf(record -> !retry.contains(record.entry) && settled.add(record));
+                markApplied(settled);
+                System.out.println("[TransferJournal] " + batch.size() + " transfer(s) unsettled — connection lost"
+                        + " or commit outcome unknown, retrying in " + backoffMillis + " ms");
+                if (closed) break;
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Whatever is left stays pending on disk for the next open()
+        unapplied.addAll(batch);
+    }
+
+    private void markApplied(List<Record> batch) {
+        for (Record record : batch) {
+            record.segment.markApplied(record.slot);
+        }
+        // One force per touched segment, then drop segments with nothing left
+        Segment last = null;
+        for (Record record : batch) {
+            if (record.segment != last) {
+                last = record.segment;
+                last.buffer.force();
+            }
+        }
+        for (Record record : batch) {
+            Segment segment = record.segment;
+            if (segment.pending.decrementAndGet() == 0 && segment.sealed) {
+                segment.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+// Scenario: A commit that failed in flight — Banking System
+// Thrown by TransactionService.transferFunds when the COMMIT itself errors.
+// The server may have committed before the connection dropped, so unlike every
+// other failure this one does not mean "rolled back": callers must reconcile
+// (read the balances, or retry under the same idempotency key) rather than
+// blindly resubmit.
+
+public class TransferOutcomeUnknownException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Transfer transfer;
+
+    public TransferOutcomeUnknownException(Transfer transfer, Throwable cause) {
+        super("Commit failed — transfer " + transfer + " may or may not have been applied", cause);
+        this.transfer = transfer;
+    }
+
+    public Transfer getTransfer() { return transfer; }
+}
@@ -0,0 +1,46 @@
+// Scenario: Per-item outcome of a batched transfer
+// transferFundsBatch() returns one of these per input, in input order,
+// so one bad account does not hide the fate of the other transfers.
+//
+// A third outcome, unknown, means the commit itself failed: the database may
+// or may not have applied the transfer, so it must not simply be retried.
+
+public final class TransferResult {
+    private final Transfer  transfer;
+    private final boolean   success;
+    private final boolean   outcomeUnknown;
+    private final Exception failure; // null on success
+
+    private TransferResult(Transfer transfer, boolean success, boolean outcomeUnknown, Exception failure) {
+        this.transfer       = transfer;
+        this.success        = success;
+        this.outcomeUnknown = outcomeUnknown;
+        this.failure        = failure;
+    }
+
+    public static TransferResult committed(Transfer transfer) {
+        return new TransferResult(transfer, true, false, null);
+    }
+
+    public static TransferResult failed(Transfer transfer, Exception failure) {
+        return new TransferResult(transfer, false, false, failure);
+    }
+
+    // commit() threw — reconcile against the database before retrying
+    public static TransferResult outcomeUnknown(Transfer transfer, Exception failure) {
+        return new TransferResult(transfer, false, true, failure);
+    }
+
+    public Transfer  getTransfer()      { return transfer; }
+    public boolean   isSuccess()        { return success; }
+    public boolean   isOutcomeUnknown() { return outcomeUnknown; }
+    public Exception getFailure()       { return failure; }
+
+    @Override
+    public String toString() {
+        if (success) {
+            return "✅ " + transfer;
+        }
+        return (outcomeUnknown ? "❓ " : "❌ ") + transfer + " — " + failure.getMessage();
+    }
+}
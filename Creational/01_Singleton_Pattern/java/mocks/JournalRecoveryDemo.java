@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Crash-recovery walkthrough for TransferJournal on local disk
+// Phase 1 journals transfers while the "DB" is down and then stops, as a
+// crash would; a torn half-written record is planted at the tail. Phase 2
+// reopens the journal and replays everything through the mock pool.
+
+public class JournalRecoveryDemo {
+    private static final int TRANSFERS           = 250;
+    private static final int RECORDS_PER_SEGMENT = 100;
+
+    public static void main(String[] args) throws Exception {
+        MockConnectionPoolManager.setVerbose(false);
+        Path directory = Files.createTempDirectory("transfer-journal");
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║   Transfer Journal — Crash Recovery Demo               ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝\n");
+        System.out.println("Journal directory: " + directory + "\n");
+
+        // ── Phase 1: DB unreachable, transfers only reach the journal ────────
+        TransferJournal down = TransferJournal.open(directory, RECORDS_PER_SEGMENT, 50, batch -> {
+            throw new IllegalStateException("DB unavailable");
+        });
+
+        long started = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            down.append(new Transfer("ACC-" + (i % 7), "ACC-" + (i % 7 + 1), Money.of(1_000, "USD")));
+        }
+        long ackMicros = (System.nanoTime() - started) / 1_000 / TRANSFERS;
+        System.out.printf("Journaled %d transfers, mean acknowledgement %d µs each%n", TRANSFERS, ackMicros);
+        down.close(200);
+
+        List<Path> segments = segmentFiles(directory);
+        report(segments.size() == 3, "Transfers spread over " + segments.size() + " segment file(s) (expected 3)");
+
+        plantTornRecord(segments.get(segments.size() - 1), TRANSFERS % RECORDS_PER_SEGMENT);
+        System.out.println("   Planted a torn record after the last complete one\n");
+
+        // ── Phase 2: restart with the DB back, replay through the mock pool ───
+        AtomicInteger applied = new AtomicInteger();
+        TransferJournal recovered = TransferJournal.open(directory, RECORDS_PER_SEGMENT, 50, batch -> {
+            MockConnectionPoolManager poolManager = MockConnectionPoolManager.getInstance();
+            MockConnection conn = poolManager.acquireConnection();
+            try {
+                conn.setAutoCommit(false);
+                for (TransferJournal.Entry entry : batch) {
+                    Transfer transfer = entry.getTransfer();
+                    MockPreparedStatement debit = conn.prepareStatement(TransactionService.DEBIT_SQL);
+                    debit.setLong(1, transfer.getAmount().getMinorUnits());
+                    debit.setString(2, transfer.getFromAccount());
+                    debit.setString(3, transfer.getAmount().getCurrency());
+                    debit.executeUpdate();
+
+                    MockPreparedStatement credit = conn.prepareStatement(TransactionService.CREDIT_SQL);
+                    credit.setLong(1, transfer.getAmount().getMinorUnits());
+                    credit.setString(2, transfer.getToAccount());
+                    credit.setString(3, transfer.getAmount().getCurrency());
+                    credit.executeUpdate();
+                }
+                conn.commit();
+                applied.addAndGet(batch.size());
+                return List.<TransferJournal.Entry>of();
+            } finally {
+                poolManager.releaseConnection(conn);
+            }
+        });
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (applied.get() < TRANSFERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        recovered.close(1_000);
+
+        report(applied.get() == TRANSFERS, "Replayed " + applied.get() + " of " + TRANSFERS + " transfers");
+        int left = segmentFiles(directory).size();
+        report(left <= 1, "Applied segments deleted (" + left + " file(s) left — the new, empty active segment)");
+
+        deleteRecursively(directory);
+    }
+
+    // A record whose state byte landed but whose payload and CRC did not
+    private static void plantTornRecord(Path segment, int slot) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek((long) slot * TransferJournal.RECORD_SIZE);
+            file.writeByte(1);
+        }
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.seg")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static void report(boolean passed, String message) {
+        System.out.println((passed ? "✅ PASS: " : "❌ FAIL: ") + message);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
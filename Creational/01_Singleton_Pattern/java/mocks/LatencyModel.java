@@ -0,0 +1,36 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latency distributions for MockDatabase statement profiles
+
+/**
+ * How long one statement takes. All values are in microseconds.
+ */
+interface LatencyModel {
+
+    long sampleNanos(ThreadLocalRandom random);
+
+    static LatencyModel none() {
+        return random -> 0;
+    }
+
+    static LatencyModel fixed(long micros) {
+        long nanos = TimeUnit.MICROSECONDS.toNanos(micros);
+        return random -> nanos;
+    }
+
+    // Gaussian around the mean, never below zero
+    static LatencyModel normal(long meanMicros, long stddevMicros) {
+        return random -> Math.max(0, (long) ((meanMicros + random.nextGaussian() * stddevMicros) * 1_000));
+    }
+
+    // Log-normal with the given median and p99 — most calls are quick, a few take far longer
+    static LatencyModel longTail(long medianMicros, long p99Micros) {
+        if (p99Micros < medianMicros) {
+            throw new IllegalArgumentException("p99 must be at least the median");
+        }
+        double mu    = Math.log(medianMicros);
+        double sigma = Math.log((double) p99Micros / medianMicros) / 2.326; // z-score of p99
+        return random -> (long) (Math.exp(mu + sigma * random.nextGaussian()) * 1_000);
+    }
+}
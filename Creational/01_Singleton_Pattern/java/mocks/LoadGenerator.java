@@ -0,0 +1,286 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load generator — transfers through MockTransactionService against MockDatabase
+// Worker threads pick account pairs (uniform, or Zipfian for hot accounts) and
+// run transferFunds back to back, either a fixed number each or for a fixed
+// time. Prints throughput, latency percentiles and failures by cause.
+//
+//   java -cp out LoadGenerator                   normal latency, 32 threads, 5 s
+//   java -cp out LoadGenerator longtail 64 10    long-tail latency, 64 threads, 10 s
+//
+// Profiles: fixed, normal, longtail, contended (hot accounts + row locks),
+// flaky (1% injected statement failures). See MockDatabase for the model.
+
+/**
+ * Usage from code:
+ *
+ *   LoadGenerator.Result result = LoadGenerator.builder()
+ *           .threads(16)
+ *           .duration(5, TimeUnit.SECONDS)
+ *           .accounts(100, 1.1)
+ *           .build()
+ *           .run();
+ *   result.print();
+ *
+ * Latency is measured per transfer, from acquireConnection() to release, so
+ * it includes the wait for a pooled connection — with more threads than
+ * connections, that wait is most of it.
+ */
+public final class LoadGenerator {
+    private final int    threads;
+    private final long   transactionsPerThread; // 0 → run for durationNanos instead
+    private final long   durationNanos;
+    private final int    accounts;
+    private final double zipfExponent;          // 0 → uniform
+    private final Money  amount;
+
+    private LoadGenerator(Builder builder) {
+        this.threads               = builder.threads;
+        this.transactionsPerThread = builder.transactionsPerThread;
+        this.durationNanos         = builder.durationNanos;
+        this.accounts              = builder.accounts;
+        this.zipfExponent          = builder.zipfExponent;
+        this.amount                = builder.amount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String profile = args.length > 0 ? args[0] : "normal";
+        int threads    = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds    = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║   Mock Database Load Generator                         ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+
+        Builder builder = builder().threads(threads).duration(seconds, TimeUnit.SECONDS);
+        switch (profile) {
+            case "fixed":
+                MockDatabase.setDefaultProfile(StatementProfile.builder()
+                        .latency(LatencyModel.fixed(200)).build());
+                break;
+            case "normal":
+                MockDatabase.setDefaultProfile(StatementProfile.builder()
+                        .latency(LatencyModel.normal(200, 50)).build());
+                break;
+            case "longtail":
+                MockDatabase.setDefaultProfile(StatementProfile.builder()
+                        .latency(LatencyModel.longTail(200, 5_000)).build());
+                break;
+            case "contended":
+                StatementProfile rowLocked = StatementProfile.builder()
+                        .latency(LatencyModel.normal(200, 50)).rowLockParameter(2).build();
+                MockDatabase.setProfile(MockTransactionService.DEBIT_SQL, rowLocked);
+                MockDatabase.setProfile(MockTransactionService.CREDIT_SQL, rowLocked);
+                MockDatabase.setLockWaitTimeoutMillis(100);
+                builder.accounts(50, 1.1);
+                break;
+            case "flaky":
+                MockDatabase.setDefaultProfile(StatementProfile.builder()
+                        .latency(LatencyModel.normal(200, 50)).failureRate(0.01).build());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown profile: " + profile
+                        + " (fixed, normal, longtail, contended, flaky)");
+        }
+        System.out.println("Profile: " + profile + ", " + threads + " threads, " + seconds + " s\n");
+
+        MockConnectionPoolManager.getInstance();
+        builder.build().run().print();
+        MockDatabase.reset();
+    }
+
+    /**
+     * Runs the load to completion. Per-operation pool and connection logging
+     * is switched off for the run and restored afterwards.
+     */
+    public Result run() throws InterruptedException {
+        boolean wasVerbose = MockConnectionPoolManager.isVerbose();
+        MockConnectionPoolManager.setVerbose(false);
+
+        MockTransactionService transactionService = new MockTransactionService();
+        TransferEngineBenchmark.ZipfianGenerator picker =
+                new TransferEngineBenchmark.ZipfianGenerator(accounts, zipfExponent);
+        LatencyHistogram[] histograms = new LatencyHistogram[threads];
+        LongAdder succeeded = new LongAdder();
+        Map<MockDatabaseException.Reason, LongAdder> failuresByReason = new EnumMap<>(MockDatabaseException.Reason.class);
+        for (MockDatabaseException.Reason reason : MockDatabaseException.Reason.values()) {
+            failuresByReason.put(reason, new LongAdder());
+        }
+        LongAdder otherFailures = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            LatencyHistogram latency = histograms[i] = new LatencyHistogram();
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                long done = 0;
+                while (transactionsPerThread > 0 ? done < transactionsPerThread : System.nanoTime() < deadline) {
+                    String from = picker.next();
+                    String to   = picker.next();
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    done++;
+                    long began = System.nanoTime();
+                    try {
+                        transactionService.transferFunds(from, to, amount);
+                        succeeded.increment();
+                    } catch (RuntimeException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof MockDatabaseException) {
+                            failuresByReason.get(((MockDatabaseException) cause).getReason()).increment();
+                        } else {
+                            otherFailures.increment();
+                        }
+                    }
+                    latency.record(System.nanoTime() - began);
+                }
+            }, "Load-" + (i + 1));
+            workers[i].start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } finally {
+            MockConnectionPoolManager.setVerbose(wasVerbose);
+        }
+        long elapsedNanos = System.nanoTime() - began;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            latency.add(histogram);
+        }
+        Map<MockDatabaseException.Reason, Long> failures = new EnumMap<>(MockDatabaseException.Reason.class);
+        failuresByReason.forEach((reason, count) -> failures.put(reason, count.sum()));
+        return new Result(threads, elapsedNanos, succeeded.sum(), failures, otherFailures.sum(), latency);
+    }
+
+    // ── Results ──────────────────────────────────────────────────────────────
+
+    public static final class Result {
+        private final int                                   threads;
+        private final long                                  elapsedNanos;
+        private final long                                  succeeded;
+        private final Map<MockDatabaseException.Reason, Long> failures;
+        private final long                                  otherFailures;
+        private final LatencyHistogram                      latency;
+
+        private Result(int threads, long elapsedNanos, long succeeded,
+                       Map<MockDatabaseException.Reason, Long> failures, long otherFailures,
+                       LatencyHistogram latency) {
+            this.threads       = threads;
+            this.elapsedNanos  = elapsedNanos;
+            this.succeeded     = succeeded;
+            this.failures      = failures;
+            this.otherFailures = otherFailures;
+            this.latency       = latency;
+        }
+
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        public long getFailed() {
+            long total = otherFailures;
+            for (long count : failures.values()) total += count;
+            return total;
+        }
+
+        public long getTotal() {
+            return succeeded + getFailed();
+        }
+
+        public double getThroughput() {
+            return getTotal() * 1e9 / elapsedNanos;
+        }
+
+        public long getPercentileNanos(double percentile) {
+            return latency.getPercentileNanos(percentile);
+        }
+
+        public void print() {
+            System.out.printf("Transfers:  %d in %.2f s on %d threads → %.0f/s%n",
+                    getTotal(), elapsedNanos / 1e9, threads, getThroughput());
+            System.out.printf("Succeeded:  %d%n", succeeded);
+            System.out.printf("Failed:     %d (injected %d, lock timeout %d, other %d)%n",
+                    getFailed(),
+                    failures.get(MockDatabaseException.Reason.INJECTED_FAILURE),
+                    failures.get(MockDatabaseException.Reason.LOCK_TIMEOUT),
+                    otherFailures);
+            System.out.printf("Latency µs: p50=%.1f p99=%.1f p999=%.1f mean=%.1f max=%.1f%n",
+                    latency.getPercentileNanos(50) / 1_000.0,
+                    latency.getPercentileNanos(99) / 1_000.0,
+                    latency.getPercentileNanos(99.9) / 1_000.0,
+                    latency.getMeanNanos() / 1_000.0,
+                    latency.getMaxNanos() / 1_000.0);
+        }
+    }
+
+    // ── Builder ──────────────────────────────────────────────────────────────
+
+    public static final class Builder {
+        private int    threads               = 16;
+        private long   transactionsPerThread = 0;
+        private long   durationNanos         = TimeUnit.SECONDS.toNanos(5);
+        private int    accounts              = 1_000;
+        private double zipfExponent          = 0;
+        private Money  amount                = Money.of(1_000, "USD");
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        // Each thread runs exactly this many transfers; overrides duration
+        public Builder transactionsPerThread(long count) {
+            this.transactionsPerThread = count;
+            return this;
+        }
+
+        public Builder duration(long amount, TimeUnit unit) {
+            this.durationNanos = unit.toNanos(amount);
+            this.transactionsPerThread = 0;
+            return this;
+        }
+
+        // exponent 0 picks accounts uniformly; around 1 concentrates traffic on a few hot accounts
+        public Builder accounts(int count, double zipfExponent) {
+            this.accounts     = count;
+            this.zipfExponent = zipfExponent;
+            return this;
+        }
+
+        public Builder amount(Money amount) {
+            this.amount = amount;
+            return this;
+        }
+
+        public LoadGenerator build() {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be at least 1");
+            }
+            if (accounts < 2) {
+                throw new IllegalArgumentException("a transfer needs at least 2 accounts");
+            }
+            return new LoadGenerator(this);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class MainWithMock {
     public static void main(String[] args) {
+        MockConnectionPoolManager.setVerbose(true); // show every acquire, release and statement
         System.out.println("╔════════════════════════════════════════════════════════╗");
         System.out.println("║   Singleton Pattern - Comprehensive Test Suite         ║");
         System.out.println("║   (Using Mock Database Connections)                    ║");
@@ -146,9 +147,11 @@ public class MainWithMock {
             // Acquire connections
             System.out.println("Acquiring first connection...");
             conn1 = pool.acquireConnection();
+            EventLog.flush(); // pool events print asynchronously — keep them next to their step
 
             System.out.println("\nAcquiring second connection...");
             conn2 = pool.acquireConnection();
+            EventLog.flush();
 
             int available = pool.getAvailableCount();
             int active = pool.getActiveCount();
@@ -170,6 +173,7 @@ public class MainWithMock {
             System.out.println("\nReleasing connections...");
             pool.releaseConnection(conn1);
             pool.releaseConnection(conn2);
+            EventLog.flush();
 
             System.out.println("\nFinal pool state:");
             System.out.println("   Available: " + pool.getAvailableCount());
@@ -182,38 +186,42 @@ public class MainWithMock {
     }
 
     /**
-     * Test 4: Verify concurrent transaction processing
+     * Test 4: Verify concurrent transaction processing under realistic DB behaviour —
+     * round-trip latency, row-lock contention and injected failures
      */
     private static void testConcurrentTransactions() {
-        MockTransactionService transactionService = new MockTransactionService();
-        final int TRANSACTION_COUNT = 5;
-        Thread[] transactionThreads = new Thread[TRANSACTION_COUNT];
-
-        System.out.println("Simulating " + TRANSACTION_COUNT + " concurrent transactions...\n");
-
-        // Create multiple concurrent transactions
-        for (int i = 0; i < TRANSACTION_COUNT; i++) {
-            final int txId = i + 1;
-            transactionThreads[i] = new Thread(() -> {
-                System.out.println("\n[Transaction-" + txId + "] Starting...");
-                transactionService.transferFunds(
-                    "ACC-" + txId + "00",
-                    "ACC-" + txId + "01",
-                    100.0 * txId
-                );
-                System.out.println("[Transaction-" + txId + "] Completed\n");
-            }, "TX-Thread-" + txId);
-        }
-
-        // Start all transactions
-        for (Thread thread : transactionThreads) {
-            thread.start();
-        }
+        final int THREADS = 8;
+        final int TRANSACTIONS_PER_THREAD = 50;
+
+        StatementProfile update = StatementProfile.builder()
+                .latency(LatencyModel.normal(200, 50))
+                .failureRate(0.01)
+                .rowLockParameter(2)
+                .build();
+        MockDatabase.setProfile(MockTransactionService.DEBIT_SQL, update);
+        MockDatabase.setProfile(MockTransactionService.CREDIT_SQL, update);
+        MockDatabase.setProfile(MockDatabase.COMMIT, StatementProfile.builder()
+                .latency(LatencyModel.longTail(300, 3_000))
+                .build());
+        MockDatabase.setLockWaitTimeoutMillis(50);
+
+        System.out.println("Running " + THREADS + " threads × " + TRANSACTIONS_PER_THREAD
+                + " transfers over 20 accounts (200 µs UPDATEs, row locks, 1% failures)...\n");
 
-        // Wait for all to complete
         try {
-            for (Thread thread : transactionThreads) {
-                thread.join();
+            LoadGenerator.Result result = LoadGenerator.builder()
+                    .threads(THREADS)
+                    .transactionsPerThread(TRANSACTIONS_PER_THREAD)
+                    .accounts(20, 0)
+                    .build()
+                    .run();
+            result.print();
+
+            if (result.getTotal() == THREADS * TRANSACTIONS_PER_THREAD) {
+                System.out.println("✅ PASS: Every transfer completed or failed cleanly");
+            } else {
+                System.out.println("❌ FAIL: Expected " + THREADS * TRANSACTIONS_PER_THREAD
+                        + " transfers, counted " + result.getTotal());
             }
 
             MockConnectionPoolManager pool = MockConnectionPoolManager.getInstance();
@@ -230,6 +238,8 @@ public class MainWithMock {
 
         } catch (InterruptedException e) {
             System.out.println("❌ Transaction test interrupted: " + e.getMessage());
+        } finally {
+            MockDatabase.reset();
         }
     }
 }
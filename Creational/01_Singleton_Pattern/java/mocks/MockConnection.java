@@ -0,0 +1,82 @@
+// Mock JDBC connection handed out by MockConnectionPoolManager
+// Statements run through MockDatabase, which supplies latency, failures and row locks.
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mock Connection class to simulate database connections
+ */
+class MockConnection {
+    private final String id;
+    private boolean autoCommit = true;
+    private boolean closed = false;
+    // Only the current borrower touches this connection — no locking needed
+    private final Map<String, MockPreparedStatement> statements = new HashMap<>();
+    // MockDatabase row locks taken by the open transaction
+    private final List<ReentrantLock> heldRowLocks = new ArrayList<>();
+
+    public MockConnection(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setAutoCommit(boolean autoCommit) {
+        this.autoCommit = autoCommit;
+        EventLog.debug(id, "Auto-commit set to: {}", autoCommit);
+    }
+
+    public void commit() {
+        if (closed) {
+            throw new RuntimeException("Connection is closed");
+        }
+        MockDatabase.commit(this);
+        EventLog.debug(id, "Transaction COMMITTED");
+    }
+
+    public void rollback() {
+        if (closed) {
+            throw new RuntimeException("Connection is closed");
+        }
+        releaseRowLocks();
+        EventLog.debug(id, "Transaction ROLLED BACK");
+    }
+
+    void holdRowLock(ReentrantLock lock) {
+        heldRowLocks.add(lock);
+    }
+
+    // Transaction ended — let waiting transactions at the rows
+    void releaseRowLocks() {
+        for (ReentrantLock lock : heldRowLocks) {
+            lock.unlock();
+        }
+        heldRowLocks.clear();
+    }
+
+    // Mirrors the real pool's per-connection statement cache: a repeat prepare
+    // is a map lookup, so the mock transfer path allocates nothing per call
+    public MockPreparedStatement prepareStatement(String sql) {
+        MockPreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = new MockPreparedStatement(this, sql);
+            statements.put(sql, statement);
+        }
+        statement.clearParameters();
+        return statement;
+    }
+
+    public void close() {
+        this.closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
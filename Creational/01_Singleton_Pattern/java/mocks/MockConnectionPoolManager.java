@@ -1,15 +1,19 @@
 // Mock version of ConnectionPoolManager for testing without database
 // Simulates connection pool behavior without actual DB connections
+// Shares ConnectionBag with the real pool — compile together with ../*.java:
+//   javac -d out *.java mocks/*.java && java -cp out MainWithMock
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 public final class MockConnectionPoolManager {
     // ── Singleton mechanics ──────────────────────────────────────────────────
 
     private static volatile MockConnectionPoolManager instance = null;
+    // Same as the real pool: no monitor held while the pool initializes
+    private static final ReentrantLock INIT_LOCK = new ReentrantLock();
 
     private MockConnectionPoolManager() {
         initializePool();
@@ -21,11 +25,14 @@ public final class MockConnectionPoolManager {
     public static MockConnectionPoolManager getInstance() {
         // First check (without locking) for performance
         if (instance == null) {
-            synchronized (MockConnectionPoolManager.class) {
+            INIT_LOCK.lock();
+            try {
                 // Second check (with locking) to ensure only one instance is created
                 if (instance == null) {
                     instance = new MockConnectionPoolManager();
                 }
+            } finally {
+                INIT_LOCK.unlock();
             }
         }
         return instance;
@@ -36,17 +43,27 @@ public final class MockConnectionPoolManager {
     private static final int POOL_SIZE = 10;
     private static final int ACQUIRE_TIMEOUT = 5; // seconds
 
-    private BlockingQueue<MockConnection> availableConnections;
+    private final ConnectionBag<MockConnection> connectionBag = new ConnectionBag<>(waiting -> {}); // fixed size — never grows
+    private final ConcurrentHashMap<MockConnection, ConnectionBag.Entry<MockConnection>> entriesByConnection = new ConcurrentHashMap<>();
     private final AtomicInteger activeConnections = new AtomicInteger(0);
     private final AtomicInteger totalConnectionsCreated = new AtomicInteger(0);
 
+    // Per-operation events are logged at DEBUG through EventLog — off unless
+    // verbose, and never formatted on the calling thread
+    public static void setVerbose(boolean enabled) {
+        EventLog.setLevel(enabled ? EventLog.Level.DEBUG : EventLog.Level.INFO);
+    }
+
+    static boolean isVerbose() {
+        return EventLog.isEnabled(EventLog.Level.DEBUG);
+    }
+
     private void initializePool() {
-        availableConnections = new ArrayBlockingQueue<>(POOL_SIZE);
         System.out.println("[MockConnectionPoolManager] Warming up " + POOL_SIZE + " mock connections...");
 
         for (int i = 0; i < POOL_SIZE; i++) {
             MockConnection conn = new MockConnection("CONN-" + (i + 1));
-            availableConnections.offer(conn);
+            entriesByConnection.put(conn, connectionBag.add(conn));
             totalConnectionsCreated.incrementAndGet();
             System.out.println("[MockConnectionPoolManager] Mock connection " + (i + 1) + " created and added to pool.");
         }
@@ -57,18 +74,20 @@ public final class MockConnectionPoolManager {
      * Borrow a connection. Blocks up to ACQUIRE_TIMEOUT seconds if pool is full.
      */
     public MockConnection acquireConnection() throws InterruptedException {
-        MockConnection conn = availableConnections.poll(ACQUIRE_TIMEOUT, TimeUnit.SECONDS);
+        ConnectionBag.Entry<MockConnection> entry = connectionBag.borrow(ACQUIRE_TIMEOUT, TimeUnit.SECONDS);
 
-        if (conn == null) {
+        if (entry == null) {
             throw new RuntimeException(
                     "Connection pool exhausted. No connection available within "
                             + ACQUIRE_TIMEOUT + "s. Active connections: " + activeConnections.get());
         }
 
+        MockConnection conn = entry.getValue();
         activeConnections.incrementAndGet();
-        System.out.println("   [Pool] Connection acquired: " + conn.getId() + 
-                         " (Active: " + activeConnections.get() + 
-                         ", Available: " + availableConnections.size() + ")");
+        if (isVerbose()) { // getAvailableCount() scans the bag — only pay for it when logging
+            EventLog.debug("Pool", "Connection acquired: {} (Active: {}, Available: {})",
+                    conn.getId(), activeConnections.get(), getAvailableCount());
+        }
         return conn;
     }
 
@@ -77,16 +96,21 @@ public final class MockConnectionPoolManager {
      */
     public void releaseConnection(MockConnection conn) {
         if (conn != null) {
-            availableConnections.offer(conn);
+            ConnectionBag.Entry<MockConnection> entry = entriesByConnection.get(conn);
+            if (entry == null) {
+                throw new IllegalArgumentException("Connection was not acquired from this pool");
+            }
             activeConnections.decrementAndGet();
-            System.out.println("   [Pool] Connection released: " + conn.getId() + 
-                             " (Active: " + activeConnections.get() + 
-                             ", Available: " + availableConnections.size() + ")");
+            connectionBag.requite(entry);
+            if (isVerbose()) {
+                EventLog.debug("Pool", "Connection released: {} (Active: {}, Available: {})",
+                        conn.getId(), activeConnections.get(), getAvailableCount());
+            }
         }
     }
 
     public int getAvailableCount() {
-        return availableConnections.size();
+        return connectionBag.count(ConnectionBag.STATE_NOT_IN_USE);
     }
 
     public int getActiveCount() {
@@ -107,78 +131,3 @@ public final class MockConnectionPoolManager {
         instance = null;
     }
 }
-
-/**
- * Mock Connection class to simulate database connections
- */
-class MockConnection {
-    private final String id;
-    private boolean autoCommit = true;
-    private boolean closed = false;
-
-    public MockConnection(String id) {
-        this.id = id;
-    }
-
-    public String getId() {
-        return id;
-    }
-
-    public void setAutoCommit(boolean autoCommit) {
-        this.autoCommit = autoCommit;
-        System.out.println("      [" + id + "] Auto-commit set to: " + autoCommit);
-    }
-
-    public void commit() {
-        if (closed) {
-            throw new RuntimeException("Connection is closed");
-        }
-        System.out.println("      [" + id + "] Transaction COMMITTED");
-    }
-
-    public void rollback() {
-        if (closed) {
-            throw new RuntimeException("Connection is closed");
-        }
-        System.out.println("      [" + id + "] Transaction ROLLED BACK");
-    }
-
-    public MockPreparedStatement prepareStatement(String sql) {
-        return new MockPreparedStatement(this, sql);
-    }
-
-    public void close() {
-        this.closed = true;
-    }
-
-    public boolean isClosed() {
-        return closed;
-    }
-}
-
-/**
- * Mock PreparedStatement class
- */
-class MockPreparedStatement {
-    private final MockConnection connection;
-    private final String sql;
-    private Object[] parameters = new Object[10];
-
-    public MockPreparedStatement(MockConnection connection, String sql) {
-        this.connection = connection;
-        this.sql = sql;
-    }
-
-    public void setDouble(int index, double value) {
-        parameters[index] = value;
-    }
-
-    public void setString(int index, String value) {
-        parameters[index] = value;
-    }
-
-    public int executeUpdate() {
-        System.out.println("      [" + connection.getId() + "] Executing: " + sql);
-        return 1; // Simulate 1 row affected
-    }
-}
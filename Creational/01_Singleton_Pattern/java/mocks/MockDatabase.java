@@ -0,0 +1,123 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The database behind MockConnection — latency, failures and row locks
+// By default every statement returns instantly and never fails, which is what
+// the functional checks in MainWithMock want. For load testing, give each SQL
+// statement a StatementProfile:
+//
+//   MockDatabase.setProfile(DEBIT_SQL, StatementProfile.builder()
+//           .latency(LatencyModel.longTail(300, 5_000))   // median 300 µs, p99 5 ms
+//           .failureRate(0.001)
+//           .rowLockParameter(2)                           // parameter 2 names the row
+//           .build());
+//   MockDatabase.setProfile(MockDatabase.COMMIT, StatementProfile.builder()
+//           .latency(LatencyModel.fixed(500))
+//           .build());
+//
+// Statements without a profile of their own use the default profile.
+
+/**
+ * Order of events for one statement, as on a real database:
+ *
+ *   1. Row lock   — wait for the row named by the profile's rowLockParameter.
+ *                   The lock is held by the connection until commit or
+ *                   rollback, so two transfers touching the same account
+ *                   serialize, and opposite-direction transfers can deadlock
+ *                   until lockWaitTimeout breaks the tie.
+ *   2. Latency    — park for a sample of the profile's LatencyModel, like a
+ *                   thread blocked on a socket read.
+ *   3. Failure    — with probability failureRate, throw MockDatabaseException.
+ *
+ * Row locks are kept per key and never removed; the mock is meant for a
+ * bounded set of test accounts.
+ */
+final class MockDatabase {
+    // Profile key for MockConnection.commit()
+    static final String COMMIT = "COMMIT";
+
+    private static final StatementProfile INSTANT = StatementProfile.builder().build();
+
+    private static volatile StatementProfile defaultProfile = INSTANT;
+    private static final Map<String, StatementProfile> profiles = new ConcurrentHashMap<>();
+    private static final Map<String, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+    private static volatile long lockWaitTimeoutNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private MockDatabase() {}
+
+    // ── Configuration ────────────────────────────────────────────────────────
+
+    static void setDefaultProfile(StatementProfile profile) {
+        defaultProfile = profile;
+    }
+
+    static void setProfile(String sql, StatementProfile profile) {
+        profiles.put(sql, profile);
+    }
+
+    static void setLockWaitTimeoutMillis(long millis) {
+        lockWaitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    // Back to instant, infallible statements
+    static void reset() {
+        defaultProfile = INSTANT;
+        profiles.clear();
+        lockWaitTimeoutNanos = TimeUnit.SECONDS.toNanos(1);
+    }
+
+    // ── Statement execution ──────────────────────────────────────────────────
+
+    // Called by MockPreparedStatement.executeUpdate()
+    static void execute(MockConnection conn, String sql, String[] stringParameters) {
+        StatementProfile profile = profiles.getOrDefault(sql, defaultProfile);
+        int rowParameter = profile.rowLockParameter;
+        if (rowParameter > 0 && stringParameters[rowParameter] != null) {
+            lockRow(conn, stringParameters[rowParameter]);
+        }
+        simulate(conn, sql, profile);
+    }
+
+    // Called by MockConnection.commit() — a failed commit leaves the transaction rolled back
+    static void commit(MockConnection conn) {
+        try {
+            simulate(conn, COMMIT, profiles.getOrDefault(COMMIT, defaultProfile));
+        } finally {
+            conn.releaseRowLocks();
+        }
+    }
+
+    private static void simulate(MockConnection conn, String sql, StatementProfile profile) {
+        long nanos = profile.latency.sampleNanos(ThreadLocalRandom.current());
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+        if (profile.failureRate > 0 && ThreadLocalRandom.current().nextDouble() < profile.failureRate) {
+            throw new MockDatabaseException(MockDatabaseException.Reason.INJECTED_FAILURE,
+                    "[" + conn.getId() + "] Injected failure executing: " + sql);
+        }
+    }
+
+    private static void lockRow(MockConnection conn, String key) {
+        ReentrantLock lock = rowLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        if (lock.isHeldByCurrentThread()) {
+            return; // this transaction already holds the row
+        }
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(lockWaitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new MockDatabaseException(MockDatabaseException.Reason.LOCK_TIMEOUT,
+                    "[" + conn.getId() + "] Lock wait timeout exceeded on row " + key);
+        }
+        conn.holdRowLock(lock);
+    }
+}
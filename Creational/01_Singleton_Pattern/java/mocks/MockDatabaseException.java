@@ -0,0 +1,21 @@
+// Failure raised by MockDatabase — injected, or a row lock wait timeout
+
+/**
+ * A failure raised by MockDatabase; the transaction is expected to roll back.
+ */
+class MockDatabaseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    enum Reason { INJECTED_FAILURE, LOCK_TIMEOUT }
+
+    private final Reason reason;
+
+    MockDatabaseException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,42 @@
+// Mock PreparedStatement — executeUpdate() runs through MockDatabase
+
+import java.util.Arrays;
+
+/**
+ * Mock PreparedStatement class
+ */
+class MockPreparedStatement {
+    private final MockConnection connection;
+    private final String sql;
+    // Typed slots, so binding a long or double never boxes
+    private final long[]   longParameters   = new long[10];
+    private final double[] doubleParameters = new double[10];
+    private final String[] stringParameters = new String[10];
+
+    public MockPreparedStatement(MockConnection connection, String sql) {
+        this.connection = connection;
+        this.sql = sql;
+    }
+
+    public void setLong(int index, long value) {
+        longParameters[index] = value;
+    }
+
+    public void setDouble(int index, double value) {
+        doubleParameters[index] = value;
+    }
+
+    public void setString(int index, String value) {
+        stringParameters[index] = value;
+    }
+
+    public void clearParameters() {
+        Arrays.fill(stringParameters, null);
+    }
+
+    public int executeUpdate() {
+        MockDatabase.execute(connection, sql, stringParameters);
+        EventLog.debug(connection.getId(), "Executing: {}", sql);
+        return 1; // Simulate 1 row affected
+    }
+}
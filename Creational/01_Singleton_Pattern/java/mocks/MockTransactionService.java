@@ -1,33 +1,18 @@
 // Mock Transaction Service using the Mock Connection Pool
 
 public class MockTransactionService {
-    public void transferFunds(String fromAccount, String toAccount, double amount) {
+    static final String DEBIT_SQL  = "UPDATE accounts SET balance = balance - ? WHERE account_id = ? AND currency = ?";
+    static final String CREDIT_SQL = "UPDATE accounts SET balance = balance + ? WHERE account_id = ? AND currency = ?";
+
+    public void transferFunds(String fromAccount, String toAccount, Money amount) {
         MockConnectionPoolManager poolManager = MockConnectionPoolManager.getInstance();
         MockConnection conn = null;
 
         try {
             conn = poolManager.acquireConnection();
+            applyTransfer(conn, fromAccount, toAccount, amount);
 
-            // Begin transaction
-            conn.setAutoCommit(false);
-
-            MockPreparedStatement debit = conn.prepareStatement(
-                "UPDATE accounts SET balance = balance - ? WHERE account_id = ?"
-            );
-            debit.setDouble(1, amount);
-            debit.setString(2, fromAccount);
-            debit.executeUpdate();
-
-            MockPreparedStatement credit = conn.prepareStatement(
-                "UPDATE accounts SET balance = balance + ? WHERE account_id = ?"
-            );
-            credit.setDouble(1, amount);
-            credit.setString(2, toAccount);
-            credit.executeUpdate();
-
-            conn.commit();
-
-            System.out.printf("   ✅ Transfer of $%.2f from %s to %s completed successfully.%n",
+            EventLog.debug("Transfer", "✅ Transfer of {} from {} to {} completed successfully.",
                     amount, fromAccount, toAccount);
         } catch (Exception e) {
             try {
@@ -40,4 +25,25 @@ public class MockTransactionService {
             poolManager.releaseConnection(conn);
         }
     }
+
+    // The transaction itself, on a connection the caller already holds — also
+    // run by PoolContentionBenchmark against its baseline pool
+    static void applyTransfer(MockConnection conn, String fromAccount, String toAccount, Money amount) {
+        // Begin transaction
+        conn.setAutoCommit(false);
+
+        MockPreparedStatement debit = conn.prepareStatement(DEBIT_SQL);
+        debit.setLong(1, amount.getMinorUnits());
+        debit.setString(2, fromAccount);
+        debit.setString(3, amount.getCurrency());
+        debit.executeUpdate();
+
+        MockPreparedStatement credit = conn.prepareStatement(CREDIT_SQL);
+        credit.setLong(1, amount.getMinorUnits());
+        credit.setString(2, toAccount);
+        credit.setString(3, amount.getCurrency());
+        credit.executeUpdate();
+
+        conn.commit();
+    }
 }
@@ -0,0 +1,258 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Contention benchmark suite — ArrayBlockingQueue baseline vs ConnectionBag
+// Every thread loops one operation as fast as it can; each cell reports
+// throughput (mean ± spread over the measured iterations) and per-operation
+// latency percentiles. The baseline reproduces the original single-lock pool
+// so both run side by side under identical load.
+//
+//   java -cp out PoolContentionBenchmark           acquire/release, then transfers at 100 µs per DB call
+//   java -cp out PoolContentionBenchmark 500       same, 500 µs per DB call
+//   java -cp out PoolContentionBenchmark 0 pool    acquire/release only
+//
+// Structured like a JMH run (warm-up, then several timed iterations, per-thread
+// histograms merged afterwards) but driven from main, since this tree has no
+// build to host a JMH module. Numbers from one JVM are comparable with each
+// other, not with another machine's.
+//
+// Virtual threads need JDK 21+. They are started reflectively so this file
+// still compiles on older JDKs, where those rows are skipped.
+
+public class PoolContentionBenchmark {
+    private static final int[] THREAD_COUNTS        = { 1, 4, 16, 64, 256 };
+    private static final long  WARMUP_MILLIS        = 500;
+    private static final long  ITERATION_MILLIS     = 700;
+    private static final int   ITERATIONS           = 3;
+    private static final long  DEFAULT_LATENCY_MICROS = 100;
+    private static final Money TRANSFER_AMOUNT      = Money.of(1_000, "USD");
+
+    public static void main(String[] args) throws InterruptedException {
+        long latencyMicros = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_LATENCY_MICROS;
+        boolean poolOnly   = args.length > 1 && args[1].equals("pool");
+
+        MockConnectionPoolManager.setVerbose(false);
+        MockConnectionPoolManager bagPool = MockConnectionPoolManager.getInstance();
+        ArrayBlockingQueuePool baselinePool = new ArrayBlockingQueuePool(10);
+        MockTransactionService transactionService = new MockTransactionService();
+
+        List<ThreadKind> kinds = new ArrayList<>();
+        kinds.add(ThreadKind.PLATFORM);
+        if (ThreadKind.virtualThreadsAvailable()) {
+            kinds.add(ThreadKind.VIRTUAL);
+        }
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║   Pool Contention Benchmark Suite                      ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.println("Warm-up " + WARMUP_MILLIS + " ms, then " + ITERATIONS + " × " + ITERATION_MILLIS
+                + " ms per cell; pool size 10.");
+        if (kinds.size() == 1) {
+            System.out.println("⚠️  Virtual threads unavailable on JDK " + Runtime.version().feature()
+                    + " — platform threads only");
+        }
+
+        System.out.println("\n── acquire + release (no DB work) ──────────────────────────────");
+        MockDatabase.reset();
+        compare(kinds,
+                () -> baselinePool.release(baselinePool.acquire()),
+                () -> bagPool.releaseConnection(bagPool.acquireConnection()));
+
+        if (!poolOnly) {
+            System.out.println("\n── transferFunds end-to-end (" + latencyMicros + " µs per DB call, 3 calls) ─────────");
+            MockDatabase.setDefaultProfile(StatementProfile.builder()
+                    .latency(LatencyModel.fixed(latencyMicros))
+                    .build());
+            compare(kinds,
+                    () -> {
+                        MockConnection conn = baselinePool.acquire();
+                        try {
+                            MockTransactionService.applyTransfer(conn, "ACC-100", "ACC-200", TRANSFER_AMOUNT);
+                        } finally {
+                            baselinePool.release(conn);
+                        }
+                    },
+                    () -> transactionService.transferFunds("ACC-100", "ACC-200", TRANSFER_AMOUNT));
+            MockDatabase.reset();
+        }
+    }
+
+    private static void compare(List<ThreadKind> kinds, Operation baseline, Operation bag) throws InterruptedException {
+        System.out.printf("%-9s %-8s %-20s %14s %8s %10s %10s %10s %8s%n",
+                "Threads", "Kind", "Pool", "ops/s", "±%", "p50 µs", "p99 µs", "p999 µs", "Speedup");
+        for (ThreadKind kind : kinds) {
+            for (int threads : THREAD_COUNTS) {
+                Result base = run(kind, threads, baseline);
+                Result fast = run(kind, threads, bag);
+                print(threads, kind, "ArrayBlockingQueue", base, "");
+                print(threads, kind, "ConnectionBag", fast, String.format("%.2fx", fast.meanOpsPerSecond() / base.meanOpsPerSecond()));
+            }
+        }
+    }
+
+    private static void print(int threads, ThreadKind kind, String pool, Result result, String speedup) {
+        LatencyHistogram latency = result.latency;
+        System.out.printf("%-9d %-8s %-20s %14.0f %7.1f%% %10.1f %10.1f %10.1f %8s%n",
+                threads, kind.label, pool, result.meanOpsPerSecond(), result.spreadPercent(),
+                latency.getPercentileNanos(50) / 1_000.0,
+                latency.getPercentileNanos(99) / 1_000.0,
+                latency.getPercentileNanos(99.9) / 1_000.0,
+                speedup);
+    }
+
+    interface Operation {
+        void run() throws InterruptedException;
+    }
+
+    private static final class Result {
+        final double[]         opsPerSecond; // one per measured iteration
+        final LatencyHistogram latency;
+
+        Result(double[] opsPerSecond, LatencyHistogram latency) {
+            this.opsPerSecond = opsPerSecond;
+            this.latency      = latency;
+        }
+
+        double meanOpsPerSecond() {
+            double total = 0;
+            for (double value : opsPerSecond) total += value;
+            return total / opsPerSecond.length;
+        }
+
+        // Half the min–max range, relative to the mean
+        double spreadPercent() {
+            double min = Double.MAX_VALUE, max = 0;
+            for (double value : opsPerSecond) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            double mean = meanOpsPerSecond();
+            return mean == 0 ? 0 : (max - min) / 2 / mean * 100;
+        }
+    }
+
+    /**
+     * One cell: threadCount threads loop the operation through the warm-up
+     * and ITERATIONS timed windows. Each thread counts per window and records
+     * latency into its own histogram — no shared counter to contend on.
+     */
+    private static Result run(ThreadKind kind, int threadCount, Operation operation) throws InterruptedException {
+        long[][] counts = new long[threadCount][ITERATIONS];
+        LatencyHistogram[] histograms = new LatencyHistogram[threadCount];
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done  = new CountDownLatch(threadCount);
+        long[] window = new long[1]; // measureStart in nanos, published by start.countDown()
+        long iterationNanos = TimeUnit.MILLISECONDS.toNanos(ITERATION_MILLIS);
+
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            histograms[i] = new LatencyHistogram();
+            kind.start(() -> {
+                long[] myCounts = counts[index];
+                LatencyHistogram myLatency = histograms[index];
+                try {
+                    start.await();
+                    long measureStart = window[0];
+                    long measureEnd   = measureStart + ITERATIONS * iterationNanos;
+                    while (System.nanoTime() < measureStart) {
+                        operation.run(); // warm-up, not counted
+                    }
+                    long now;
+                    while ((now = System.nanoTime()) < measureEnd) {
+                        operation.run();
+                        long finished = System.nanoTime();
+                        myLatency.record(finished - now);
+                        myCounts[(int) Math.min(ITERATIONS - 1, (now - measureStart) / iterationNanos)]++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        window[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARMUP_MILLIS);
+        start.countDown(); // happens-before publishes the window to every thread
+        done.await();
+
+        double[] opsPerSecond = new double[ITERATIONS];
+        LatencyHistogram latency = new LatencyHistogram();
+        for (int i = 0; i < threadCount; i++) {
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                opsPerSecond[iteration] += counts[i][iteration] * 1000.0 / ITERATION_MILLIS;
+            }
+            latency.add(histograms[i]);
+        }
+        return new Result(opsPerSecond, latency);
+    }
+
+    private enum ThreadKind {
+        PLATFORM("platform"),
+        VIRTUAL("virtual");
+
+        // Thread.startVirtualThread(Runnable) — JDK 21+, null before that
+        private static final Method START_VIRTUAL = lookUpStartVirtual();
+
+        final String label;
+
+        ThreadKind(String label) {
+            this.label = label;
+        }
+
+        static boolean virtualThreadsAvailable() {
+            return START_VIRTUAL != null;
+        }
+
+        void start(Runnable task) {
+            if (this == PLATFORM) {
+                new Thread(task, "Bench").start();
+                return;
+            }
+            try {
+                START_VIRTUAL.invoke(null, task);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not start a virtual thread", e);
+            }
+        }
+
+        private static Method lookUpStartVirtual() {
+            try {
+                return Thread.class.getMethod("startVirtualThread", Runnable.class);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
+
+/**
+ * The original single-lock pool core, kept as the comparison baseline.
+ */
+class ArrayBlockingQueuePool {
+    private final BlockingQueue<MockConnection> availableConnections;
+
+    ArrayBlockingQueuePool(int size) {
+        availableConnections = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            availableConnections.offer(new MockConnection("BASE-" + (i + 1)));
+        }
+    }
+
+    MockConnection acquire() throws InterruptedException {
+        MockConnection conn = availableConnections.poll(5, TimeUnit.SECONDS);
+        if (conn == null) {
+            throw new RuntimeException("Baseline pool exhausted");
+        }
+        return conn;
+    }
+
+    void release(MockConnection conn) {
+        availableConnections.offer(conn);
+    }
+}
@@ -0,0 +1,48 @@
+// Per-statement behaviour of the mock database — see MockDatabase
+
+/**
+ * Latency, failure rate and row locking for one SQL statement.
+ */
+final class StatementProfile {
+    final LatencyModel latency;
+    final double       failureRate;      // 0–1, per execution
+    final int          rowLockParameter; // string parameter naming the row; 0 → no row lock
+
+    private StatementProfile(Builder builder) {
+        this.latency          = builder.latency;
+        this.failureRate      = builder.failureRate;
+        this.rowLockParameter = builder.rowLockParameter;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private LatencyModel latency          = LatencyModel.none();
+        private double       failureRate      = 0;
+        private int          rowLockParameter = 0;
+
+        Builder latency(LatencyModel latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        Builder failureRate(double failureRate) {
+            if (failureRate < 0 || failureRate > 1) {
+                throw new IllegalArgumentException("failureRate must be between 0 and 1");
+            }
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        Builder rowLockParameter(int index) {
+            this.rowLockParameter = index;
+            return this;
+        }
+
+        StatementProfile build() {
+            return new StatementProfile(this);
+        }
+    }
+}
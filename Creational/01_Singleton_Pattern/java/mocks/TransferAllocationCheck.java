@@ -0,0 +1,60 @@
+import java.lang.management.ManagementFactory;
+
+// Allocation check for the mock transfer path
+// Runs MockTransactionService.transferFunds in a tight loop on one thread and
+// reads that thread's allocated-bytes counter before and after. With Money
+// bound via setLong() and statements cached per connection, the steady state
+// should allocate nothing per transfer.
+
+public class TransferAllocationCheck {
+    private static final int   WARMUP_TRANSFERS  = 200_000; // let the JIT compile the path
+    private static final int   MEASURE_TRANSFERS = 1_000_000;
+    private static final Money FEE               = Money.of(1_999, "USD");
+
+    public static void main(String[] args) {
+        MockConnectionPoolManager.setVerbose(false);
+        MockTransactionService service = new MockTransactionService();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("⚠️  This JVM does not report per-thread allocation — nothing to measure.");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║   Transfer Path Allocation Check (bytes per transfer)  ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝\n");
+
+        double shared = measure(threads, () -> service.transferFunds("ACC-100", "ACC-200", FEE));
+        double fresh  = measure(threads, () -> service.transferFunds("ACC-100", "ACC-200", Money.of(1_999, "USD")));
+
+        System.out.printf("Shared Money instance:     %6.2f bytes/transfer%n", shared);
+        System.out.printf("Money.of() per transfer:   %6.2f bytes/transfer%n", fresh);
+        System.out.println();
+
+        // A fraction of a byte is the measurement itself (the counter's own bookkeeping)
+        if (shared < 1.0) {
+            System.out.println("✅ PASS: Transfer path allocates nothing in steady state");
+        } else {
+            System.out.println("❌ FAIL: Transfer path still allocates " + shared + " bytes per transfer");
+        }
+        if (fresh >= 1.0) {
+            System.out.println("   (Money.of() per call costs one small object unless the JIT scalar-replaces it)");
+        }
+    }
+
+    private static double measure(com.sun.management.ThreadMXBean threads, Runnable transfer) {
+        for (int i = 0; i < WARMUP_TRANSFERS; i++) {
+            transfer.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURE_TRANSFERS; i++) {
+            transfer.run();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+        return (after - before) / (double) MEASURE_TRANSFERS;
+    }
+}
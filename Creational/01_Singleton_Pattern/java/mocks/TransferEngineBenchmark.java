@@ -0,0 +1,194 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Skewed-load benchmark — row-locked transfers vs the sharded TransferEngine
+// Accounts are drawn from a Zipfian distribution, so a few merchant accounts
+// take most of the traffic. The baseline holds a per-account lock (standing
+// in for the DB row lock) for the duration of each transfer; the engine
+// applies transfers in memory and writes netted deltas in batches.
+
+public class TransferEngineBenchmark {
+    private static final int    ACCOUNTS       = 1_000;
+    private static final double ZIPF_EXPONENT  = 1.1;
+    private static final int    THREADS        = 16;
+    private static final int    TRANSFERS      = 200_000;
+    private static final long   ROW_WORK_NANOS = 20_000; // simulated cost of one UPDATE
+    private static final Money  ONE_DOLLAR     = Money.of(100, "USD");
+
+    public static void main(String[] args) throws Exception {
+        MockConnectionPoolManager.setVerbose(false);
+        ZipfianGenerator accounts = new ZipfianGenerator(ACCOUNTS, ZIPF_EXPONENT);
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║   Transfer Engine Benchmark (Zipfian accounts)         ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝\n");
+        System.out.printf("Accounts: %d, exponent %.1f — top account gets %.1f%% of picks%n",
+                ACCOUNTS, ZIPF_EXPONENT, accounts.probabilityOf(0) * 100);
+        System.out.printf("Threads: %d, transfers: %d, simulated UPDATE: %d µs%n%n",
+                THREADS, TRANSFERS, ROW_WORK_NANOS / 1_000);
+
+        double baseline = run("Row locks", accounts, new RowLockedTransfers());
+
+        MockLedger ledger = new MockLedger();
+        TransferEngine engine = new TransferEngine(ledger, "USD", 4, 256, 5);
+        double sharded = run("TransferEngine", accounts,
+                (from, to, amount) -> engine.submit(from, to, amount));
+        engine.shutdown();
+
+        System.out.printf("%nSpeedup: %.2fx — %d transfers became %d batched flushes (%d UPDATEs)%n",
+                sharded / baseline, TRANSFERS, ledger.flushes.sum(), ledger.rowsUpdated.sum());
+    }
+
+    interface TransferOperation {
+        Object transfer(String from, String to, Money amount) throws Exception;
+    }
+
+    private static double run(String label, ZipfianGenerator accounts, TransferOperation operation)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder rejected = new LongAdder();
+        Thread[] threads = new Thread[THREADS];
+        int perThread = TRANSFERS / THREADS;
+
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                CompletableFuture<?>[] accepted = new CompletableFuture<?>[perThread];
+                try {
+                    start.await();
+                    for (int n = 0; n < perThread; n++) {
+                        String from = accounts.next();
+                        String to   = accounts.next();
+                        if (from.equals(to)) continue;
+                        Object result = operation.transfer(from, to, ONE_DOLLAR);
+                        if (result instanceof CompletableFuture) accepted[n] = (CompletableFuture<?>) result;
+                    }
+                    for (CompletableFuture<?> future : accepted) {
+                        if (future != null) future.join(); // the engine's clock stops once all are accepted
+                    }
+                } catch (Exception e) {
+                    rejected.increment();
+                }
+            }, "Bench-" + (i + 1));
+            threads[i].start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        double throughput = TRANSFERS / seconds;
+
+        System.out.printf("%-16s %10.0f transfers/s  (%.2f s%s)%n", label, throughput, seconds,
+                rejected.sum() > 0 ? ", " + rejected.sum() + " threads failed" : "");
+        return throughput;
+    }
+
+    private static void busyWork(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // ── Baseline: one transaction per transfer, holding both row locks ───────
+
+    static final class RowLockedTransfers implements TransferOperation {
+        private final Map<String, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+
+        @Override
+        public Object transfer(String from, String to, Money amount) throws Exception {
+            MockConnectionPoolManager poolManager = MockConnectionPoolManager.getInstance();
+            MockConnection conn = poolManager.acquireConnection();
+
+            // Lock in account order, as the DB would to avoid deadlock
+            ReentrantLock first  = lockFor(from.compareTo(to) < 0 ? from : to);
+            ReentrantLock second = lockFor(from.compareTo(to) < 0 ? to : from);
+            first.lock();
+            second.lock();
+            try {
+                busyWork(ROW_WORK_NANOS); // debit
+                busyWork(ROW_WORK_NANOS); // credit
+            } finally {
+                second.unlock();
+                first.unlock();
+                poolManager.releaseConnection(conn);
+            }
+            return null;
+        }
+
+        private ReentrantLock lockFor(String account) {
+            return rowLocks.computeIfAbsent(account, a -> new ReentrantLock());
+        }
+    }
+
+    // ── Engine ledger: batched UPDATEs over the mock pool ────────────────────
+
+    static final class MockLedger implements TransferEngine.Ledger {
+        final LongAdder flushes     = new LongAdder();
+        final LongAdder rowsUpdated = new LongAdder();
+
+        @Override
+        public long loadBalance(String account, String currency) {
+            return 100_000_000_000L;
+        }
+
+        @Override
+        public void applyDeltas(Map<String, Long> deltas, String currency) throws InterruptedException {
+            MockConnectionPoolManager poolManager = MockConnectionPoolManager.getInstance();
+            MockConnection conn = poolManager.acquireConnection();
+            try {
+                for (int i = 0; i < deltas.size(); i++) {
+                    busyWork(ROW_WORK_NANOS); // one UPDATE per account, however many transfers it netted
+                }
+                flushes.increment();
+                rowsUpdated.add(deltas.size());
+            } finally {
+                poolManager.releaseConnection(conn);
+            }
+        }
+    }
+
+    // ── Zipfian account picker ───────────────────────────────────────────────
+
+    /**
+     * Rank k (0-based) is picked with probability proportional to 1 / (k+1)^s.
+     * The CDF is precomputed once; each pick is a binary search.
+     */
+    static final class ZipfianGenerator {
+        private final double[] cdf;
+        private final String[] names;
+
+        ZipfianGenerator(int size, double exponent) {
+            cdf   = new double[size];
+            names = new String[size];
+            double sum = 0;
+            for (int k = 0; k < size; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cdf[k] = sum;
+                names[k] = "ACC-" + (k + 1);
+            }
+            for (int k = 0; k < size; k++) {
+                cdf[k] /= sum;
+            }
+        }
+
+        String next() {
+            double u = ThreadLocalRandom.current().nextDouble();
+            int index = Arrays.binarySearch(cdf, u);
+            if (index < 0) index = -index - 1;
+            return names[Math.min(index, names.length - 1)];
+        }
+
+        double probabilityOf(int rank) {
+            return rank == 0 ? cdf[0] : cdf[rank] - cdf[rank - 1];
+        }
+    }
+}
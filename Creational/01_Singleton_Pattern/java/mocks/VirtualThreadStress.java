@@ -0,0 +1,97 @@
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.consumer.RecordingStream;
+
+// Stress test — 100k transfers on virtual threads against MockConnectionPoolManager
+// A JFR stream listens for jdk.VirtualThreadPinned while the transfers run;
+// any pinned event means a virtual thread blocked while holding a monitor.
+//
+// Virtual threads need JDK 21+. They are looked up reflectively so this file
+// still compiles on older JDKs, where it falls back to platform threads and
+// skips the pinning check.
+
+public class VirtualThreadStress {
+    private static final int   TRANSFER_COUNT = 100_000;
+    private static final Money TEN_DOLLARS    = Money.of(1_000, "USD");
+
+    public static void main(String[] args) throws Exception {
+        MockConnectionPoolManager.setVerbose(false);
+        MockTransactionService transactionService = new MockTransactionService();
+
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        boolean virtual = virtualExecutor != null;
+        ExecutorService executor = virtual ? virtualExecutor : Executors.newFixedThreadPool(256);
+
+        System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        System.out.println("Virtual-thread stress: " + TRANSFER_COUNT + " transfers");
+        System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        if (!virtual) {
+            System.out.println("⚠️  Virtual threads unavailable on JDK " + Runtime.version().feature()
+                    + " — running on 256 platform threads, pinning check skipped");
+        }
+
+        AtomicInteger pinnedEvents = new AtomicInteger(0);
+        AtomicInteger failures = new AtomicInteger(0);
+
+        try (RecordingStream jfr = new RecordingStream()) {
+            // Threshold 0 → report every pin, not just ones over the 20 ms default
+            jfr.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            jfr.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (pinnedEvents.incrementAndGet() <= 3) {
+                    System.out.println("❌ Pinned: " + event);
+                }
+            });
+            jfr.startAsync();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < TRANSFER_COUNT; i++) {
+                final int txId = i;
+                executor.execute(() -> {
+                    try {
+                        transactionService.transferFunds("ACC-" + (txId % 1000), "ACC-" + ((txId + 1) % 1000), TEN_DOLLARS);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.MINUTES);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Let the stream flush events recorded near the end of the run
+            Thread.sleep(1_500);
+
+            MockConnectionPoolManager pool = MockConnectionPoolManager.getInstance();
+            System.out.println("   Completed in:       " + elapsedMillis + " ms");
+            System.out.println("   Failed transfers:   " + failures.get());
+            System.out.println("   Pinned events:      " + (virtual ? String.valueOf(pinnedEvents.get()) : "n/a (platform threads)"));
+            System.out.println("   Pool after run:     Available=" + pool.getAvailableCount()
+                    + ", Active=" + pool.getActiveCount());
+
+            if (failures.get() == 0 && pinnedEvents.get() == 0 && pool.getActiveCount() == 0) {
+                System.out.println(virtual
+                        ? "✅ PASS: no pinning, no failures, all connections returned"
+                        : "✅ PASS: no failures, all connections returned");
+            } else {
+                System.out.println("❌ FAIL: see counts above");
+            }
+            if (!virtual) {
+                System.out.println("⏭️  SKIPPED: pinning check — needs virtual threads (JDK 21+)");
+            }
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() if this JDK has it, else null
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}